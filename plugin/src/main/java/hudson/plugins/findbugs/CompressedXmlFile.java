@@ -0,0 +1,174 @@
+package hudson.plugins.findbugs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.XStreamException;
+
+/**
+ * XML file of XStream that is stored with GZIP compression. The content is compressed while it is
+ * written and decompressed while it is read, so the uncompressed XML document is never held in
+ * memory. Compressed files are detected by their magic bytes: files that have been written
+ * without compression are read as well.
+ *
+ * @author Ulli Hafner
+ */
+class CompressedXmlFile {
+    private static final String ENCODING = "UTF-8";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final XStream xstream;
+    private final File file;
+
+    /**
+     * Creates a new instance of {@link CompressedXmlFile}.
+     *
+     * @param xstream
+     *            the XStream instance to convert the objects
+     * @param file
+     *            the file to read or write
+     */
+    CompressedXmlFile(final XStream xstream, final File file) {
+        this.xstream = xstream;
+        this.file = file;
+    }
+
+    /**
+     * Returns whether the file exists and has been written with compression.
+     *
+     * @return <code>true</code> if the file is compressed, <code>false</code> otherwise
+     */
+    public boolean isCompressed() {
+        if (!file.exists()) {
+            return false;
+        }
+        InputStream stream = null;
+        try {
+            stream = new FileInputStream(file);
+            return isCompressed(stream.read(), stream.read());
+        }
+        catch (IOException exception) {
+            return false;
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    private static boolean isCompressed(final int first, final int second) {
+        return first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+    }
+
+    /**
+     * Writes the specified object with compression. The object is written to a temporary file
+     * first that atomically replaces the file after it has been written completely, so the
+     * previous content is never lost.
+     *
+     * @param object
+     *            the object to write
+     * @throws IOException
+     *             if the file could not be written
+     */
+    public void write(final Object object) throws IOException {
+        File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(temporary);
+            write(xstream, object, stream, true);
+            stream.close();
+            stream = null;
+
+            Files.move(temporary.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+            if (temporary.exists() && !temporary.delete()) {
+                temporary.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Writes the specified object as XML document to the specified stream.
+     *
+     * @param xstream
+     *            the XStream instance to convert the object
+     * @param object
+     *            the object to write
+     * @param stream
+     *            the stream to write to, the stream is not closed
+     * @param isCompressed
+     *            determines whether the document should be compressed
+     * @throws IOException
+     *             if the stream could not be written
+     */
+    static void write(final XStream xstream, final Object object, final OutputStream stream,
+            final boolean isCompressed) throws IOException {
+        OutputStream output = new BufferedOutputStream(stream, BUFFER_SIZE);
+        GZIPOutputStream compressor = null;
+        if (isCompressed) {
+            compressor = new GZIPOutputStream(output, BUFFER_SIZE);
+            output = compressor;
+        }
+        try {
+            Writer writer = new OutputStreamWriter(output, ENCODING);
+            writer.write("<?xml version='1.0' encoding='" + ENCODING + "'?>\n");
+            xstream.toXML(object, writer);
+            writer.flush();
+            if (compressor != null) {
+                compressor.finish();
+            }
+            output.flush();
+        }
+        catch (XStreamException exception) {
+            throw new IOException("Can't write XML document", exception);
+        }
+    }
+
+    /**
+     * Reads the object of this file. The file is decompressed if it has been written with
+     * compression.
+     *
+     * @return the object of this file
+     * @throws IOException
+     *             if the file could not be read
+     */
+    public Object read() throws IOException {
+        Reader reader = null;
+        try {
+            InputStream stream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+            stream.mark(2);
+            boolean isCompressed = isCompressed(stream.read(), stream.read());
+            stream.reset();
+            if (isCompressed) {
+                stream = new GZIPInputStream(stream, BUFFER_SIZE);
+            }
+            reader = new InputStreamReader(stream, ENCODING);
+            return xstream.fromXML(reader);
+        }
+        catch (XStreamException exception) {
+            throw new IOException("Can't read " + file, exception);
+        }
+        finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+}
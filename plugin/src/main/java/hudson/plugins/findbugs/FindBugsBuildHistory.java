@@ -0,0 +1,136 @@
+package hudson.plugins.findbugs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+
+import hudson.model.Run;
+
+import hudson.plugins.analysis.core.BuildHistory;
+import hudson.plugins.analysis.core.ResultAction;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.findbugs.parser.InstanceHashIndex;
+import hudson.plugins.findbugs.parser.LongPairSet;
+
+/**
+ * History of FindBugs results that computes the new and fixed warnings using the persisted
+ * {@link InstanceHashIndex} of the reference build. The instance hashes of one build are looked
+ * up in a {@link LongPairSet} of the hashes of the other build, so the warnings of the reference
+ * build are not loaded and the warnings of the current build need not be sorted. Warnings with
+ * the same context hash code as a warning of the other build are neither new nor fixed, just like
+ * in the {@code AnnotationDifferencer} of the super class. The index stores the keys of the
+ * warnings, so the fixed warnings are looked up by their keys in the reference result, in the order
+ * of the reference build. If the warnings of the reference build are stored in the binary format,
+ * then just the fixed warnings are decoded. If the reference build has no index with context hash
+ * codes, then the warnings are compared by the super class.
+ *
+ * @author Ulli Hafner
+ */
+class FindBugsBuildHistory extends BuildHistory {
+    private static final Logger LOGGER = Logger.getLogger(FindBugsBuildHistory.class.getName());
+
+    private final Class<? extends ResultAction<FindBugsResult>> type;
+
+    /** The reference build of the cached index. */
+    private transient Run<?, ?> indexedBuild;
+    private transient InstanceHashIndex referenceIndex;
+
+    /**
+     * Creates a new instance of {@link FindBugsBuildHistory}.
+     *
+     * @param baseline
+     *            the build to start the history from
+     * @param type
+     *            type of the action that contains the build results
+     * @param usePreviousBuildAsReference
+     *            determines whether to use the previous build as the reference build
+     * @param useStableBuildAsReference
+     *            determines whether only stable builds should be used as reference builds or not
+     */
+    FindBugsBuildHistory(final Run<?, ?> baseline, final Class<? extends ResultAction<FindBugsResult>> type,
+            final boolean usePreviousBuildAsReference, final boolean useStableBuildAsReference) {
+        super(baseline, type, usePreviousBuildAsReference, useStableBuildAsReference);
+
+        this.type = type;
+    }
+
+    @Override
+    public Collection<FileAnnotation> getNewWarnings(final Set<FileAnnotation> annotations) {
+        Run<?, ?> reference = getReferenceBuild();
+        InstanceHashIndex index = getReferenceIndex(reference);
+        if (index == null) {
+            return super.getNewWarnings(annotations);
+        }
+        return index.getNew(annotations);
+    }
+
+    @Override
+    public Collection<FileAnnotation> getFixedWarnings(final Set<FileAnnotation> annotations) {
+        Run<?, ?> reference = getReferenceBuild();
+        InstanceHashIndex index = getReferenceIndex(reference);
+        FindBugsResult referenceResult = index == null ? null : getReferenceResult(reference);
+        if (referenceResult == null) {
+            return super.getFixedWarnings(annotations);
+        }
+
+        List<FileAnnotation> fixedWarnings = new ArrayList<FileAnnotation>();
+        for (long key : index.getFixedKeys(annotations)) {
+            FileAnnotation warning = referenceResult.getAnnotation(key);
+            if (warning != null) {
+                fixedWarnings.add(warning);
+            }
+        }
+        return fixedWarnings;
+    }
+
+    /**
+     * Returns the index of the specified reference build. The index is read only once for each
+     * reference build.
+     */
+    private synchronized InstanceHashIndex getReferenceIndex(final Run<?, ?> reference) {
+        if (reference != indexedBuild) { // NOPMD: the builds are compared on purpose
+            indexedBuild = reference;
+            referenceIndex = readReferenceIndex(reference);
+        }
+        return referenceIndex;
+    }
+
+    private InstanceHashIndex readReferenceIndex(final Run<?, ?> reference) {
+        File file = getReferenceFile(reference, FindBugsResult.INDEX_FILE_NAME);
+        if (file != null && file.exists()) {
+            try {
+                InstanceHashIndex index = InstanceHashIndex.read(file);
+                if (index.hasContextHashes()) {
+                    return index;
+                }
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.WARNING, "Failed to read instance hash index " + file, exception);
+            }
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private FindBugsResult getReferenceResult(final Run<?, ?> reference) {
+        ResultAction<FindBugsResult> action = reference == null ? null : reference.getAction(type);
+        if (action == null) {
+            return null;
+        }
+        return action.getResult();
+    }
+
+    private File getReferenceFile(final Run<?, ?> reference, final String fileName) {
+        if (reference == null) {
+            return null;
+        }
+        return new File(reference.getRootDir(), fileName);
+    }
+}
@@ -1,8 +1,21 @@
 package hudson.plugins.findbugs;
 
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.annotation.CheckForNull;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.Symbol;
+import org.jvnet.localizer.LocaleProvider;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import jenkins.model.Jenkins;
 
 import hudson.Extension;
+import hudson.PluginWrapper;
 import hudson.plugins.analysis.core.PluginDescriptor;
 
 /**
@@ -21,6 +34,11 @@ public final class FindBugsDescriptor extends PluginDescriptor {
     static final String ICON_URL_PREFIX = "/plugin/findbugs/icons/";
     /** Icon to use for the result and project action. */
     static final String ICON_URL = ICON_URL_PREFIX + "findbugs-24x24.png";
+    /** URL of the pattern descriptions, relative to the root URL of Jenkins. */
+    static final String DESCRIPTION_URL = "/descriptorByName/" + FindBugsPublisher.class.getName() + "/patternDescription";
+    /** Number of seconds the browser may cache a pattern description without asking again. */
+    private static final int DESCRIPTION_MAX_AGE = 24 * 60 * 60;
+    private static final String UNKNOWN_VERSION = "unknown";
 
     /**
      * Creates a new instance of {@link FindBugsDescriptor}.
@@ -48,4 +66,88 @@ public final class FindBugsDescriptor extends PluginDescriptor {
     public String getSummaryIconUrl() {
         return ICON_URL_PREFIX + "findbugs-48x48.png";
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the HTML description of the bug pattern given by the request parameter
+     * {@code type}. The descriptions do not change as long as neither this plug-in nor a plug-in
+     * that contributes a {@link MessageBundle} is updated, so the response carries an entity tag
+     * that consists of these plug-in versions and the locale.
+     *
+     * @param request
+     *            Stapler request
+     * @param response
+     *            Stapler response
+     * @throws IOException
+     *             if the response could not be written
+     */
+    public void doPatternDescription(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        String type = request.getParameter("type");
+        if (StringUtils.isBlank(type)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing type");
+            return;
+        }
+
+        Locale locale = LocaleProvider.getLocale();
+        String entityTag = '"' + getPluginVersion() + '-' + getBundlesVersion() + '-' + locale + '"';
+        response.setHeader("ETag", entityTag);
+        response.setHeader("Cache-Control", "private, max-age=" + DESCRIPTION_MAX_AGE);
+        response.setHeader("Vary", "Accept-Language");
+        if (entityTag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType("text/html;charset=UTF-8");
+        response.getWriter().write(FindBugsMessages.getInstance().getMessage(type, locale));
+    }
+
+    /**
+     * Returns the version of this plug-in.
+     *
+     * @return the version, or {@code unknown} if Jenkins is not running
+     */
+    static String getPluginVersion() {
+        try {
+            Jenkins jenkins = Jenkins.getInstance();
+            if (jenkins != null) {
+                return getVersion(jenkins.getPluginManager().getPlugin(PLUGIN_ID));
+            }
+        }
+        catch (IllegalStateException exception) { // NOCHECKSTYLE
+            // Jenkins is not running
+        }
+        return UNKNOWN_VERSION;
+    }
+
+    /**
+     * Returns a hash of the registered message bundles and the versions of the plug-ins that
+     * contribute them. The hash changes if a bundle is added or removed or if a contributing
+     * plug-in is updated.
+     *
+     * @return the hash of the message bundles as hexadecimal string
+     */
+    static String getBundlesVersion() {
+        StringBuilder bundles = new StringBuilder();
+        try {
+            Jenkins jenkins = Jenkins.getInstance();
+            for (MessageBundle bundle : MessageBundle.all()) {
+                bundles.append(bundle.getName()).append('@');
+                if (jenkins != null) {
+                    bundles.append(getVersion(jenkins.getPluginManager().whichPlugin(bundle.getOwner())));
+                }
+                bundles.append(';');
+            }
+        }
+        catch (IllegalStateException exception) { // NOCHECKSTYLE
+            // Jenkins is not running
+        }
+        return Integer.toHexString(bundles.toString().hashCode());
+    }
+
+    private static String getVersion(@CheckForNull final PluginWrapper plugin) {
+        if (plugin == null) {
+            return UNKNOWN_VERSION;
+        }
+        return StringUtils.deleteWhitespace(plugin.getVersion());
+    }
+}
@@ -3,35 +3,73 @@ package hudson.plugins.findbugs;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.apache.commons.io.IOUtils;
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.commons.lang.StringUtils;
 import org.xml.sax.SAXException;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import com.google.common.collect.ImmutableMap;
 
 import hudson.plugins.analysis.util.SecureDigester;
 
 /**
- * Parses the FindBugs pattern descriptions and provides access to these HTML messages.
+ * Provides access to the FindBugs pattern descriptions. The descriptions are provided by {@link MessageBundle
+ * message bundles}: the bundles of FindBugs, fb-contrib and Find Security Bugs are part of this plug-in, additional
+ * bundles can be registered by other plug-ins. The messages of a language are loaded on first use of the language,
+ * different languages are loaded concurrently. When a language is loaded, the messages files of all bundles are
+ * indexed: the short descriptions are kept in memory, while the HTML descriptions are read from the messages files
+ * on demand and kept in a bounded cache. Bug patterns that are not translated use the description of the default
+ * language.
  *
  * @author Ulli Hafner
  */
-// TODO: when there are more translations available we should generalize that approach into a map of maps
 public final class FindBugsMessages {
-    /** Maps a key to HTML description. */
-    private final Map<String, String> messages = new HashMap<String, String>();
-    private final Map<String, String> jaMessages = new HashMap<String, String>();
-    private final Map<String, String> frMessages = new HashMap<String, String>();
-    private final Map<String, String> shortMessages = new HashMap<String, String>();
-    private final Map<String, String> jaShortMessages = new HashMap<String, String>();
-    private final Map<String, String> frShortMessages = new HashMap<String, String>();
+    /** The message bundles that are part of this plug-in. */
+    private static final List<MessageBundle> BUNDLES = Arrays.asList(
+            new MessageBundle("FindBugs", FindBugsMessages.class, ImmutableMap.of(
+                    MessageBundle.DEFAULT_LANGUAGE, "messages.xml", "fr", "messages_fr.xml", "ja", "messages_ja.xml")),
+            new MessageBundle("fb-contrib", FindBugsMessages.class, ImmutableMap.of(
+                    MessageBundle.DEFAULT_LANGUAGE, "fb-contrib-messages.xml")),
+            new MessageBundle("Find Security Bugs", FindBugsMessages.class, ImmutableMap.of(
+                    MessageBundle.DEFAULT_LANGUAGE, "find-sec-bugs-messages.xml")));
+
+    /** Maximum number of HTML descriptions that are kept in memory. */
+    private static final int MAXIMUM_CACHED_DESCRIPTIONS = 256;
+
+    /** Indexes of the messages files per language, each language is loaded on first use. */
+    private final ConcurrentMap<String, Future<List<MessageIndex>>> languages
+            = new ConcurrentHashMap<String, Future<List<MessageIndex>>>();
+
+    /** Loading statistics of all messages files that have been loaded so far. */
+    private final List<Statistics> statistics = new CopyOnWriteArrayList<Statistics>();
+
+    /** Recently used HTML descriptions, the key is composed of the language and the bug type. */
+    private final Map<String, String> descriptions = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        private static final long serialVersionUID = -2346214418427151592L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > MAXIMUM_CACHED_DESCRIPTIONS;
+        }
+    };
 
     private static Logger logger = Logger.getLogger(FindBugsMessages.class.getName());
 
@@ -62,46 +100,117 @@ public final class FindBugsMessages {
     }
 
     /**
-     * Initializes the messages map.
-     *
-     * @throws SAXException
-     *             if we can't parse a file
-     * @throws IOException
-     *             if we can't read a file
+     * Loads the messages of the default language. The messages of other languages are loaded on first use.
      */
-    @SuppressFBWarnings({"DE", "REC"})
-    private void initialize() throws IOException, SAXException {
-        synchronized (messages) {
-            loadMessages("messages.xml", messages, shortMessages);
-            loadMessages("fb-contrib-messages.xml", messages, shortMessages);
-            loadMessages("find-sec-bugs-messages.xml", messages, shortMessages);
-
-            try {
-                loadMessages("messages_fr.xml", frMessages, frShortMessages);
-                loadMessages("messages_ja.xml", jaMessages, jaShortMessages);
+    private void initialize() {
+        getIndexes(MessageBundle.DEFAULT_LANGUAGE);
+    }
+
+    private List<MessageBundle> getBundles() {
+        List<MessageBundle> bundles = new ArrayList<MessageBundle>(BUNDLES);
+        for (MessageBundle bundle : MessageBundle.all()) {
+            bundles.add(bundle);
+        }
+        return bundles;
+    }
+
+    /**
+     * Returns the indexes of the messages files of the specified language. If the language has not been loaded
+     * yet, then the messages files are loaded by the calling thread. Other threads that request the same language
+     * wait until the messages are loaded.
+     */
+    private List<MessageIndex> getIndexes(final String language) {
+        Future<List<MessageIndex>> indexes = languages.get(language);
+        if (indexes == null) {
+            FutureTask<List<MessageIndex>> loader = new FutureTask<List<MessageIndex>>(
+                    new Callable<List<MessageIndex>>() {
+                        @Override
+                        public List<MessageIndex> call() {
+                            return loadMessages(language);
+                        }
+                    });
+            indexes = languages.putIfAbsent(language, loader);
+            if (indexes == null) {
+                indexes = loader;
+                loader.run();
             }
-            catch (Exception exception) { // NOCHECKSTYLE
-                // ignore failures on localized messages
+        }
+        try {
+            return indexes.get();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        }
+        catch (ExecutionException exception) {
+            logger.log(Level.WARNING, "Can't load FindBugs messages for language " + language, exception);
+            return Collections.emptyList();
+        }
+    }
+
+    private List<MessageIndex> loadMessages(final String language) {
+        List<MessageIndex> indexes = new ArrayList<MessageIndex>();
+        Set<String> types = new HashSet<String>();
+        for (MessageBundle bundle : getBundles()) {
+            String fileName = bundle.getFileName(language);
+            if (fileName != null) {
+                try {
+                    long start = System.currentTimeMillis();
+                    MessageIndex index = new MessageIndex(bundle.getOwner(), fileName);
+                    Statistics loaded = new Statistics(bundle.getName(), language, index,
+                            System.currentTimeMillis() - start);
+                    statistics.add(loaded);
+                    logger.log(Level.FINE, "Loaded FindBugs messages: " + loaded);
+                    for (String type : index.getTypes()) {
+                        if (!types.add(type)) {
+                            logger.warning("The bug pattern " + type + " was already loaded. It could be a duplicate.");
+                        }
+                    }
+                    indexes.add(0, index); // the last file wins
+                }
+                catch (IOException exception) {
+                    logger.log(Level.WARNING, "Can't read FindBugs messages file " + fileName, exception);
+                }
+                catch (XMLStreamException exception) {
+                    logger.log(Level.WARNING, "Can't parse FindBugs messages file " + fileName, exception);
+                }
             }
         }
+        return indexes;
     }
 
-    private void loadMessages(final String fileName, final Map<String, String> messagesCache, final Map<String, String> shortMessagesCache) throws IOException, SAXException {
-        InputStream file = null;
-        try {
-            file = FindBugsMessages.class.getResourceAsStream(fileName);
-            List<Pattern> patterns = parse(file);
-            for (Pattern pattern : patterns) {
-                if(messagesCache.get(pattern.getType()) != null || shortMessagesCache.get(pattern.getType()) != null) {
-                    logger.warning("The bug pattern "+pattern.getType()+" was already loaded. It could be a duplicate.");
+    /**
+     * Returns the language that is used to show messages for the specified locale.
+     */
+    private String getLanguage(final Locale locale) {
+        String language = StringUtils.lowerCase(locale.getLanguage());
+        if (languages.containsKey(language)) {
+            return language;
+        }
+        if (StringUtils.isNotEmpty(language)) {
+            for (MessageBundle bundle : getBundles()) {
+                if (bundle.hasLanguage(language)) {
+                    return language;
                 }
-                messagesCache.put(pattern.getType(), pattern.getDescription());
-                shortMessagesCache.put(pattern.getType(), pattern.getShortDescription());
             }
         }
-        finally {
-            IOUtils.closeQuietly(file);
+        return MessageBundle.DEFAULT_LANGUAGE;
+    }
+
+    /**
+     * Returns the index that describes the specified bug. If the bug is not described in the specified language,
+     * then the index of the default language is returned.
+     */
+    private MessageIndex findIndex(final String name, final String language) {
+        for (MessageIndex index : getIndexes(language)) {
+            if (index.contains(name)) {
+                return index;
+            }
+        }
+        if (!MessageBundle.DEFAULT_LANGUAGE.equals(language)) {
+            return findIndex(name, MessageBundle.DEFAULT_LANGUAGE);
         }
+        return null;
     }
 
     /**
@@ -143,10 +252,44 @@ public final class FindBugsMessages {
      * @return a HTML description
      */
     public String getMessage(final String name, final Locale locale) {
-        String localizedMessage = getLocalizedMessage(name, locale, messages, jaMessages, frMessages);
+        String localizedMessage = getDescription(name, getLanguage(locale));
         return StringUtils.defaultIfEmpty(localizedMessage, Messages.FindBugs_Publisher_NoMessageFoundText());
     }
 
+    private String getDescription(final String name, final String language) {
+        String key = language + ':' + name;
+        synchronized (descriptions) {
+            String description = descriptions.get(key);
+            if (description != null) {
+                return description;
+            }
+        }
+        MessageIndex index = findIndex(name, language);
+        if (index == null) {
+            return null;
+        }
+        String description = readDescription(index, name);
+        if (description != null) {
+            synchronized (descriptions) {
+                descriptions.put(key, description);
+            }
+        }
+        return description;
+    }
+
+    private String readDescription(final MessageIndex index, final String name) {
+        try {
+            return index.readDescription(name);
+        }
+        catch (IOException exception) {
+            logger.log(Level.WARNING, "Can't read description of " + name + " from " + index.getFileName(), exception);
+        }
+        catch (XMLStreamException exception) {
+            logger.log(Level.WARNING, "Can't read description of " + name + " from " + index.getFileName(), exception);
+        }
+        return null;
+    }
+
     /**
      * Returns a short description for the specified bug.
      *
@@ -157,24 +300,12 @@ public final class FindBugsMessages {
      * @return a HTML description for the specified bug.
      */
     public String getShortMessage(final String name, final Locale locale)  {
-        String localizedMessage = getLocalizedMessage(name, locale, shortMessages, jaShortMessages, frShortMessages);
-        return StringUtils.defaultIfEmpty(localizedMessage, Messages.FindBugs_Publisher_NoMessageFoundText());
-    }
-
-    private String getLocalizedMessage(final String name, final Locale locale,
-            final Map<String, String> en, final Map<String, String> ja, final Map<String, String> fr) {
-        String country = locale.getLanguage();
-        String localizedMessage;
-        if ("ja".equalsIgnoreCase(country)) {
-            localizedMessage = ja.get(name);
+        String localizedMessage = null;
+        MessageIndex index = findIndex(name, getLanguage(locale));
+        if (index != null) {
+            localizedMessage = index.getShortDescription(name);
         }
-        else if ("fr".equalsIgnoreCase(country)) {
-            localizedMessage = fr.get(name);
-        }
-        else {
-            localizedMessage = en.get(name);
-        }
-        return localizedMessage;
+        return StringUtils.defaultIfEmpty(localizedMessage, Messages.FindBugs_Publisher_NoMessageFoundText());
     }
 
     /**
@@ -183,7 +314,20 @@ public final class FindBugsMessages {
      * @return the number of stored messages (English locale)
      */
     public int size() {
-        return messages.size();
+        Set<String> types = new HashSet<String>();
+        for (MessageIndex index : getIndexes(MessageBundle.DEFAULT_LANGUAGE)) {
+            types.addAll(index.getTypes());
+        }
+        return types.size();
+    }
+
+    /**
+     * Returns the loading statistics of all messages files that have been loaded so far.
+     *
+     * @return the statistics of the loaded messages files
+     */
+    public List<Statistics> getStatistics() {
+        return Collections.unmodifiableList(statistics);
     }
 
     /**
@@ -192,5 +336,86 @@ public final class FindBugsMessages {
     private FindBugsMessages() {
         // prevents instantiation
     }
-}
 
+    /**
+     * Loading statistics of a messages file of a {@link MessageBundle}.
+     */
+    public static final class Statistics {
+        private final String bundle;
+        private final String language;
+        private final String fileName;
+        private final int size;
+        private final long memoryFootprint;
+        private final long loadingTime;
+
+        Statistics(final String bundle, final String language, final MessageIndex index, final long loadingTime) {
+            this.bundle = bundle;
+            this.language = language;
+            fileName = index.getFileName();
+            size = index.size();
+            memoryFootprint = index.getMemoryFootprint();
+            this.loadingTime = loadingTime;
+        }
+
+        /**
+         * Returns the name of the message bundle.
+         *
+         * @return the name of the bundle
+         */
+        public String getBundle() {
+            return bundle;
+        }
+
+        /**
+         * Returns the language of the messages file.
+         *
+         * @return the language, or an empty string for the default language
+         */
+        public String getLanguage() {
+            return language;
+        }
+
+        /**
+         * Returns the name of the messages file.
+         *
+         * @return the file name
+         */
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Returns the number of bug patterns in the messages file.
+         *
+         * @return the number of bug patterns
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the estimated heap memory that is occupied by the messages of this file.
+         *
+         * @return the estimated number of bytes
+         */
+        public long getMemoryFootprint() {
+            return memoryFootprint;
+        }
+
+        /**
+         * Returns the time that has been required to load the messages file.
+         *
+         * @return the loading time in milliseconds
+         */
+        public long getLoadingTime() {
+            return loadingTime;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s [%s] %s: %d patterns, %d ms, %d KB", bundle,
+                    StringUtils.defaultIfEmpty(language, "default"), fileName, size, loadingTime,
+                    memoryFootprint / 1024);
+        }
+    }
+}
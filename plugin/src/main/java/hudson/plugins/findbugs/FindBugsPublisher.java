@@ -14,10 +14,11 @@ import hudson.model.BuildListener;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.plugins.analysis.core.BuildResult;
-import hudson.plugins.analysis.core.FilesParser;
 import hudson.plugins.analysis.core.HealthAwarePublisher;
 import hudson.plugins.analysis.core.ParserResult;
 import hudson.plugins.analysis.util.PluginLogger;
+import hudson.plugins.findbugs.parser.BugFilter;
+import hudson.plugins.findbugs.parser.FindBugsFilesParser;
 import hudson.plugins.findbugs.parser.FindBugsParser;
 
 /**
@@ -45,6 +46,36 @@ public class FindBugsPublisher extends HealthAwarePublisher {
     /** RegEx patterns of files to include in the report. */
     private String includePattern;
 
+    /** The maximum FindBugs rank of the warnings to report, values less than 1 report all ranks. */
+    private int maximumRank;
+
+    /** The minimum priority of the warnings to report. */
+    private String minimumPriority;
+
+    /** The categories of the warnings to report. */
+    private String includeCategories;
+
+    /** The categories of the warnings to skip. */
+    private String excludeCategories;
+
+    /** The bug types of the warnings to report. */
+    private String includeTypes;
+
+    /** The bug types of the warnings to skip. */
+    private String excludeTypes;
+
+    /** Determines whether to read the FindBugs XML files in a single pass. */
+    private boolean isSinglePassActivated;
+
+    /** Determines whether to index the source folders once rather than searching them for each source file. */
+    private boolean isSourceIndexActivated;
+
+    /** The maximum number of FindBugs XML files that are parsed at the same time. */
+    private int parserThreads;
+
+    /** The format to store the warnings of a build in. */
+    private StorageFormat storageFormat;
+
     /**
      * Default data bound constructor.
      * Use setters to initialize the object if needed.
@@ -131,23 +162,217 @@ public class FindBugsPublisher extends HealthAwarePublisher {
         this.includePattern = includePattern;
     }
 
+    /**
+     * Returns the maximum FindBugs rank of the warnings to report.
+     *
+     * @return the maximum rank, values less than 1 report all ranks
+     */
+    public int getMaximumRank() {
+        return maximumRank;
+    }
+
+    /**
+     * @see {@link #getMaximumRank()}
+     */
+    @DataBoundSetter
+    public void setMaximumRank(final int maximumRank) {
+        this.maximumRank = maximumRank;
+    }
+
+    /**
+     * Returns the minimum priority of the warnings to report.
+     *
+     * @return the minimum priority (high, normal, or low), an empty value reports all priorities
+     */
+    public String getMinimumPriority() {
+        return minimumPriority;
+    }
+
+    /**
+     * @see {@link #getMinimumPriority()}
+     */
+    @DataBoundSetter
+    public void setMinimumPriority(final String minimumPriority) {
+        this.minimumPriority = minimumPriority;
+    }
+
+    /**
+     * Returns the categories of the warnings to report.
+     *
+     * @return String of concatenated categories separated by a comma, an empty value reports all categories
+     */
+    public String getIncludeCategories() {
+        return includeCategories;
+    }
+
+    /**
+     * @see {@link #getIncludeCategories()}
+     */
+    @DataBoundSetter
+    public void setIncludeCategories(final String includeCategories) {
+        this.includeCategories = includeCategories;
+    }
+
+    /**
+     * Returns the categories of the warnings to skip.
+     *
+     * @return String of concatenated categories separated by a comma
+     */
+    public String getExcludeCategories() {
+        return excludeCategories;
+    }
+
+    /**
+     * @see {@link #getExcludeCategories()}
+     */
+    @DataBoundSetter
+    public void setExcludeCategories(final String excludeCategories) {
+        this.excludeCategories = excludeCategories;
+    }
+
+    /**
+     * Returns the bug types of the warnings to report.
+     *
+     * @return String of concatenated bug types separated by a comma, an empty value reports all bug types
+     */
+    public String getIncludeTypes() {
+        return includeTypes;
+    }
+
+    /**
+     * @see {@link #getIncludeTypes()}
+     */
+    @DataBoundSetter
+    public void setIncludeTypes(final String includeTypes) {
+        this.includeTypes = includeTypes;
+    }
+
+    /**
+     * Returns the bug types of the warnings to skip.
+     *
+     * @return String of concatenated bug types separated by a comma
+     */
+    public String getExcludeTypes() {
+        return excludeTypes;
+    }
+
+    /**
+     * @see {@link #getExcludeTypes()}
+     */
+    @DataBoundSetter
+    public void setExcludeTypes(final String excludeTypes) {
+        this.excludeTypes = excludeTypes;
+    }
+
+    /**
+     * Returns whether to read the FindBugs XML files in a single pass.
+     *
+     * @return <code>true</code> if the files should be read in a single
+     *         pass, <code>false</code> if the FindBugs library should be used
+     */
+    public boolean isSinglePassActivated() {
+        return isSinglePassActivated;
+    }
+
+    /**
+     * @see {@link #isSinglePassActivated()}
+     */
+    @DataBoundSetter
+    public void setSinglePassActivated(final boolean isSinglePassActivated) {
+        this.isSinglePassActivated = isSinglePassActivated;
+    }
+
+    /**
+     * Returns whether to build an index of the source folders to resolve the source files of the warnings.
+     *
+     * @return <code>true</code> if the source folders should be indexed,
+     *         <code>false</code> if the source folders should be searched
+     *         for each source file
+     */
+    public boolean isSourceIndexActivated() {
+        return isSourceIndexActivated;
+    }
+
+    /**
+     * @see {@link #isSourceIndexActivated()}
+     */
+    @DataBoundSetter
+    public void setSourceIndexActivated(final boolean isSourceIndexActivated) {
+        this.isSourceIndexActivated = isSourceIndexActivated;
+    }
+
+    /**
+     * Returns the maximum number of FindBugs XML files that are parsed at the same time.
+     *
+     * @return the number of parser threads, values less than 2 parse the
+     *         files one after another
+     */
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    /**
+     * @see {@link #getParserThreads()}
+     */
+    @DataBoundSetter
+    public void setParserThreads(final int parserThreads) {
+        this.parserThreads = parserThreads;
+    }
+
+    /**
+     * Returns the format to store the warnings of a build in.
+     *
+     * @return the storage format
+     */
+    public StorageFormat getStorageFormat() {
+        return StorageFormat.valueOrDefault(storageFormat);
+    }
+
+    /**
+     * @see {@link #getStorageFormat()}
+     */
+    @DataBoundSetter
+    public void setStorageFormat(final StorageFormat storageFormat) {
+        this.storageFormat = storageFormat;
+    }
+
     @Override
     public BuildResult perform(final Run<?, ?> build, final FilePath workspace, final PluginLogger logger) throws InterruptedException, IOException {
         logger.log("Collecting findbugs analysis files...");
 
         boolean isMavenBuild = isMavenBuild(build);
         String defaultPattern = isMavenBuild ? MAVEN_DEFAULT_PATTERN : ANT_DEFAULT_PATTERN;
-        FilesParser collector = new FilesParser(PLUGIN_NAME,
+        FindBugsParser parser = new FindBugsParser(isRankActivated, getExcludePattern(), getIncludePattern());
+        parser.setSinglePassActivated(isSinglePassActivated);
+        parser.setSourceIndexActivated(isSourceIndexActivated);
+        parser.setBugFilter(new BugFilter(maximumRank, minimumPriority,
+                includeCategories, excludeCategories, includeTypes, excludeTypes));
+        FindBugsFilesParser collector = new FindBugsFilesParser(
                 StringUtils.defaultIfEmpty(expandFilePattern(getPattern(), build.getEnvironment(TaskListener.NULL)), defaultPattern),
-                new FindBugsParser(isRankActivated, getExcludePattern(), getIncludePattern()), shouldDetectModules(), isMavenBuild);
+                parser, shouldDetectModules(), isMavenBuild, parserThreads);
 
-        ParserResult project = workspace.act(collector);
+        ParserResult project;
+        boolean isStoredByAgent = false;
+        if (FindBugsResult.isAgentStorageEnabled()) {
+            StoringFilesParser storingParser = new StoringFilesParser(collector, build, workspace, getStorageFormat());
+            project = storingParser.parse();
+            isStoredByAgent = storingParser.isStored();
+        }
+        else {
+            project = workspace.act(collector.encoded()).decode();
+        }
         logger.logLines(project.getLogMessages());
 
-        blame(project.getAnnotations(), build, workspace);
+        if (isStoredByAgent) {
+            logger.log("Skipping the assignment of authors, the warnings have been stored by the agent.");
+        }
+        else {
+            blame(project.getAnnotations(), build, workspace);
+        }
 
         FindBugsResult result = new FindBugsResult(build, getDefaultEncoding(), project,
-                usePreviousBuildAsReference(), useOnlyStableBuildsAsReference());
+                usePreviousBuildAsReference(), useOnlyStableBuildsAsReference(), getStorageFormat(),
+                isStoredByAgent);
 
         build.addAction(new FindBugsResultAction(build, this, result));
 
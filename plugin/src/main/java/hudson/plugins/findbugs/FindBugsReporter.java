@@ -4,27 +4,38 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
 import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import hudson.Extension;
 import hudson.FilePath;
 import hudson.maven.MavenAggregatedReport;
 import hudson.maven.MavenBuild;
 import hudson.maven.MavenBuildProxy;
 import hudson.maven.MavenModule;
+import hudson.maven.MavenModuleSetBuild;
 import hudson.maven.MojoInfo;
 import hudson.model.BuildListener;
-import hudson.plugins.analysis.core.FilesParser;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
 import hudson.plugins.analysis.core.HealthAwareReporter;
 import hudson.plugins.analysis.core.ParserResult;
 import hudson.plugins.analysis.util.PluginLogger;
+import hudson.plugins.findbugs.parser.BugFilter;
+import hudson.plugins.findbugs.parser.FindBugsFilesParser;
 import hudson.plugins.findbugs.parser.FindBugsParser;
+import hudson.plugins.findbugs.parser.StringPool;
 import hudson.remoting.VirtualChannel;
 
 /**
@@ -38,6 +49,17 @@ public class FindBugsReporter extends HealthAwareReporter<FindBugsResult> {
 
     private static final String PLUGIN_NAME = "FINDBUGS";
 
+    private static final Logger LOGGER = Logger.getLogger(FindBugsReporter.class.getName());
+
+    /**
+     * The string pools of the Maven builds, each pool is shared by the results of all modules of a build. The
+     * results of the modules are created concurrently, so the map is synchronized. The pools are not stored in
+     * actions of the builds, since actions are persisted in the build.xml files. A pool is removed by the
+     * {@link StringPoolReleaser} when its build is completed.
+     */
+    private static final Map<MavenModuleSetBuild, StringPool> STRING_POOLS
+            = Collections.synchronizedMap(new WeakHashMap<MavenModuleSetBuild, StringPool>());
+
     /** FindBugs filename if maven findbugsXmlOutput is activated. */
     private static final String FINDBUGS_XML_FILE = "findbugsXml.xml";
     /** FindBugs filename if maven findbugsXmlOutput is not activated. */
@@ -52,6 +74,36 @@ public class FindBugsReporter extends HealthAwareReporter<FindBugsResult> {
     /** RegEx patterns of files to include in the report. */
     private final String includePattern;
 
+    /** The maximum FindBugs rank of the warnings to report, values less than 1 report all ranks. */
+    private int maximumRank;
+
+    /** The minimum priority of the warnings to report. */
+    private String minimumPriority;
+
+    /** The categories of the warnings to report. */
+    private String includeCategories;
+
+    /** The categories of the warnings to skip. */
+    private String excludeCategories;
+
+    /** The bug types of the warnings to report. */
+    private String includeTypes;
+
+    /** The bug types of the warnings to skip. */
+    private String excludeTypes;
+
+    /** Determines whether to read the FindBugs XML files in a single pass. */
+    private boolean isSinglePassActivated;
+
+    /** Determines whether to index the source folders once rather than searching them for each source file. */
+    private boolean isSourceIndexActivated;
+
+    /** The maximum number of FindBugs XML files that are parsed at the same time. */
+    private int parserThreads;
+
+    /** The format to store the warnings of a build in. */
+    private StorageFormat storageFormat;
+
     /**
      * Creates a new instance of <code>FindBugsReporter</code>.
      *
@@ -168,6 +220,180 @@ public class FindBugsReporter extends HealthAwareReporter<FindBugsResult> {
         return includePattern;
     }
 
+    /**
+     * Returns the maximum FindBugs rank of the warnings to report.
+     *
+     * @return the maximum rank, values less than 1 report all ranks
+     */
+    public int getMaximumRank() {
+        return maximumRank;
+    }
+
+    /**
+     * @see {@link #getMaximumRank()}
+     */
+    @DataBoundSetter
+    public void setMaximumRank(final int maximumRank) {
+        this.maximumRank = maximumRank;
+    }
+
+    /**
+     * Returns the minimum priority of the warnings to report.
+     *
+     * @return the minimum priority (high, normal, or low), an empty value reports all priorities
+     */
+    public String getMinimumPriority() {
+        return minimumPriority;
+    }
+
+    /**
+     * @see {@link #getMinimumPriority()}
+     */
+    @DataBoundSetter
+    public void setMinimumPriority(final String minimumPriority) {
+        this.minimumPriority = minimumPriority;
+    }
+
+    /**
+     * Returns the categories of the warnings to report.
+     *
+     * @return String of concatenated categories separated by a comma, an empty value reports all categories
+     */
+    public String getIncludeCategories() {
+        return includeCategories;
+    }
+
+    /**
+     * @see {@link #getIncludeCategories()}
+     */
+    @DataBoundSetter
+    public void setIncludeCategories(final String includeCategories) {
+        this.includeCategories = includeCategories;
+    }
+
+    /**
+     * Returns the categories of the warnings to skip.
+     *
+     * @return String of concatenated categories separated by a comma
+     */
+    public String getExcludeCategories() {
+        return excludeCategories;
+    }
+
+    /**
+     * @see {@link #getExcludeCategories()}
+     */
+    @DataBoundSetter
+    public void setExcludeCategories(final String excludeCategories) {
+        this.excludeCategories = excludeCategories;
+    }
+
+    /**
+     * Returns the bug types of the warnings to report.
+     *
+     * @return String of concatenated bug types separated by a comma, an empty value reports all bug types
+     */
+    public String getIncludeTypes() {
+        return includeTypes;
+    }
+
+    /**
+     * @see {@link #getIncludeTypes()}
+     */
+    @DataBoundSetter
+    public void setIncludeTypes(final String includeTypes) {
+        this.includeTypes = includeTypes;
+    }
+
+    /**
+     * Returns the bug types of the warnings to skip.
+     *
+     * @return String of concatenated bug types separated by a comma
+     */
+    public String getExcludeTypes() {
+        return excludeTypes;
+    }
+
+    /**
+     * @see {@link #getExcludeTypes()}
+     */
+    @DataBoundSetter
+    public void setExcludeTypes(final String excludeTypes) {
+        this.excludeTypes = excludeTypes;
+    }
+
+    /**
+     * Returns whether to read the FindBugs XML files in a single pass.
+     *
+     * @return <code>true</code> if the files should be read in a single
+     *         pass, <code>false</code> if the FindBugs library should be used
+     */
+    public boolean isSinglePassActivated() {
+        return isSinglePassActivated;
+    }
+
+    /**
+     * @see {@link #isSinglePassActivated()}
+     */
+    @DataBoundSetter
+    public void setSinglePassActivated(final boolean isSinglePassActivated) {
+        this.isSinglePassActivated = isSinglePassActivated;
+    }
+
+    /**
+     * Returns whether to build an index of the source folders to resolve the source files of the warnings.
+     *
+     * @return <code>true</code> if the source folders should be indexed,
+     *         <code>false</code> if the source folders should be searched
+     *         for each source file
+     */
+    public boolean isSourceIndexActivated() {
+        return isSourceIndexActivated;
+    }
+
+    /**
+     * @see {@link #isSourceIndexActivated()}
+     */
+    @DataBoundSetter
+    public void setSourceIndexActivated(final boolean isSourceIndexActivated) {
+        this.isSourceIndexActivated = isSourceIndexActivated;
+    }
+
+    /**
+     * Returns the maximum number of FindBugs XML files that are parsed at the same time.
+     *
+     * @return the number of parser threads, values less than 2 parse the
+     *         files one after another
+     */
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    /**
+     * @see {@link #getParserThreads()}
+     */
+    @DataBoundSetter
+    public void setParserThreads(final int parserThreads) {
+        this.parserThreads = parserThreads;
+    }
+
+    /**
+     * Returns the format to store the warnings of a build in.
+     *
+     * @return the storage format
+     */
+    public StorageFormat getStorageFormat() {
+        return StorageFormat.valueOrDefault(storageFormat);
+    }
+
+    /**
+     * @see {@link #getStorageFormat()}
+     */
+    @DataBoundSetter
+    public void setStorageFormat(final StorageFormat storageFormat) {
+        this.storageFormat = storageFormat;
+    }
+
     @Override
     public boolean preExecute(final MavenBuildProxy build, final MavenProject pom, final MojoInfo mojo,
             final BuildListener listener) throws InterruptedException, IOException {
@@ -205,8 +431,13 @@ public class FindBugsReporter extends HealthAwareReporter<FindBugsResult> {
         List<String> sources = new ArrayList<String>(pom.getCompileSourceRoots());
         sources.addAll(pom.getTestCompileSourceRoots());
 
-        FilesParser findBugsCollector = new FilesParser(PLUGIN_NAME, determineFileName(mojo),
-                new FindBugsParser(sources, isRankActivated, getExcludePattern(), getIncludePattern()), getModuleName(pom));
+        FindBugsParser parser = new FindBugsParser(sources, isRankActivated, getExcludePattern(), getIncludePattern());
+        parser.setSinglePassActivated(isSinglePassActivated);
+        parser.setSourceIndexActivated(isSourceIndexActivated);
+        parser.setBugFilter(new BugFilter(maximumRank, minimumPriority,
+                includeCategories, excludeCategories, includeTypes, excludeTypes));
+        FindBugsFilesParser findBugsCollector = new FindBugsFilesParser(determineFileName(mojo), parser,
+                getModuleName(pom), parserThreads);
 
         return getOutputPath(mojo, pom).act(findBugsCollector);
     }
@@ -226,8 +457,46 @@ public class FindBugsReporter extends HealthAwareReporter<FindBugsResult> {
 
     @Override
     protected FindBugsResult createResult(final MavenBuild build, final ParserResult project) {
+        StringPool stringPool = getStringPool(build);
+        stringPool.intern(project.getAnnotations());
+        LOGGER.log(Level.FINE, "Interned warnings of {0}: {1}", new Object[] {build, stringPool});
+
         return new FindBugsReporterResult(build, getDefaultEncoding(), project,
-                usePreviousBuildAsReference(), useOnlyStableBuildsAsReference());
+                usePreviousBuildAsReference(), useOnlyStableBuildsAsReference(), getStorageFormat());
+    }
+
+    /**
+     * Returns the string pool of the specified module build. The results of the module builds are deserialized
+     * one by one on the controller, so equal strings of different modules are shared only by this pool.
+     */
+    private static StringPool getStringPool(final MavenBuild build) {
+        MavenModuleSetBuild parent = build.getParentBuild();
+        if (parent == null) {
+            return new StringPool();
+        }
+        synchronized (STRING_POOLS) { // get and put need to be atomic
+            StringPool stringPool = STRING_POOLS.get(parent);
+            if (stringPool == null) {
+                stringPool = new StringPool();
+                STRING_POOLS.put(parent, stringPool);
+            }
+            return stringPool;
+        }
+    }
+
+    /**
+     * Prints the statistics of the string pool of a Maven build to the console of the build and removes the pool
+     * when the build is completed, so the pool does not live as long as the build is kept in memory.
+     */
+    @Extension(optional = true)
+    public static class StringPoolReleaser extends RunListener<MavenModuleSetBuild> {
+        @Override
+        public void onCompleted(final MavenModuleSetBuild build, final TaskListener listener) {
+            StringPool stringPool = STRING_POOLS.remove(build);
+            if (stringPool != null) {
+                listener.getLogger().println("[" + PLUGIN_NAME + "] " + stringPool);
+            }
+        }
     }
 
     @Override
@@ -32,8 +32,33 @@ public class FindBugsReporterResult extends FindBugsResult {
      */
     public FindBugsReporterResult(final Run<?, ?> build, final String defaultEncoding, final ParserResult result,
             final boolean usePreviousBuildAsReference, final boolean useStableBuildAsReference) {
+        this(build, defaultEncoding, result, usePreviousBuildAsReference, useStableBuildAsReference,
+                StorageFormat.XML);
+    }
+
+    /**
+     * Creates a new instance of {@link FindBugsReporterResult}.
+     *
+     * @param build
+     *            the current build as owner of this action
+     * @param defaultEncoding
+     *            the default encoding to be used when reading and parsing files
+     * @param result
+     *            the parsed result with all annotations
+     * @param usePreviousBuildAsReference
+     *            determines whether to use the previous build as the reference
+     *            build
+     * @param useStableBuildAsReference
+     *            determines whether only stable builds should be used as
+     *            reference builds or not
+     * @param format
+     *            the format to store the warnings in
+     */
+    public FindBugsReporterResult(final Run<?, ?> build, final String defaultEncoding, final ParserResult result,
+            final boolean usePreviousBuildAsReference, final boolean useStableBuildAsReference,
+            final StorageFormat format) {
         super(build, defaultEncoding, result, usePreviousBuildAsReference, useStableBuildAsReference,
-                FindBugsMavenResultAction.class);
+                format, FindBugsMavenResultAction.class);
     }
 
     @Override
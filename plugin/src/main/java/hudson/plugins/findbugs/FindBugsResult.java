@@ -1,5 +1,16 @@
 package hudson.plugins.findbugs;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+
 import com.thoughtworks.xstream.XStream;
 
 import hudson.model.AbstractBuild;
@@ -9,23 +20,49 @@ import hudson.plugins.analysis.core.BuildHistory;
 import hudson.plugins.analysis.core.ParserResult;
 import hudson.plugins.analysis.core.ResultAction;
 import hudson.plugins.analysis.core.BuildResult;
+import hudson.plugins.analysis.util.model.AnnotationStream;
 import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.JavaProject;
+import hudson.plugins.findbugs.parser.BinaryBugFormat;
+import hudson.plugins.findbugs.parser.BinaryBugFormat.MappedBugs;
 import hudson.plugins.findbugs.parser.Bug;
+import hudson.plugins.findbugs.parser.InstanceHashIndex;
 
 /**
  * Represents the results of the FindBugs analysis. One instance of this class is persisted for
- * each build via an XML file.
+ * each build via an XML file. The warnings of a build are stored in a separate file, using the
+ * {@link StorageFormat} that is configured for the job: the XML format of XStream, the XML format
+ * compressed with GZIP, or the compact {@link BinaryBugFormat}. The name of this file is part of
+ * the result (see {@link #getSerializationFileName()}), so the warnings of each build are read
+ * in the format they have been written in. If the system property {@link #AGENT_STORAGE} is set,
+ * then the warnings are written by the agent that parses the FindBugs files (see
+ * {@link StoringFilesParser}), so the controller does not need to serialize the warnings.
  *
  * @author Ulli Hafner
  */
 public class FindBugsResult extends BuildResult {
     private static final long serialVersionUID = 2768250056765266658L;
 
+    private static final Logger LOGGER = Logger.getLogger(FindBugsResult.class.getName());
+
+    /**
+     * System property that enables the storage of the warnings by the agent. The authors of the
+     * warnings are not assigned in this case.
+     */
+    public static final String AGENT_STORAGE = FindBugsResult.class.getName() + ".agentStorage";
+    static final String INDEX_FILE_NAME = "findbugs-hashes.bin";
     private static final int LESS_ONE_WEEK = 6;
 
     private int newThisWeek;
     private int notInCloud;
     private int numberOfComments;
+    /** The name of the file with the warnings, <code>null</code> for builds that use the XML format. */
+    private String storageFileName;
+
+    /** The warnings of the binary or compressed storage, loaded on demand. */
+    private transient WeakReference<JavaProject> loadedProject;
+    /** The mapping of the binary storage, shared by all views of this build while it is in use. */
+    private transient WeakReference<MappedBugs> mappedBugs;
 
     /**
      * Creates a new instance of {@link FindBugsResult}.
@@ -46,7 +83,7 @@ public class FindBugsResult extends BuildResult {
     public FindBugsResult(final Run<?, ?> build, final String defaultEncoding, final ParserResult result,
             final boolean usePreviousBuildAsReference, final boolean useStableBuildAsReference) {
         this(build, defaultEncoding, result, usePreviousBuildAsReference, useStableBuildAsReference,
-                FindBugsResultAction.class);
+                StorageFormat.XML, false);
     }
 
     /**
@@ -70,24 +107,299 @@ public class FindBugsResult extends BuildResult {
     protected FindBugsResult(final Run<?, ?> build, final String defaultEncoding, final ParserResult result,
             final boolean usePreviousBuildAsReference, final boolean useStableBuildAsReference,
             final Class<? extends ResultAction<FindBugsResult>> actionType) {
-        this(build, new BuildHistory(build, actionType, usePreviousBuildAsReference, useStableBuildAsReference),
-                result, defaultEncoding, true);
+        this(build, defaultEncoding, result, usePreviousBuildAsReference, useStableBuildAsReference,
+                StorageFormat.XML, actionType);
+    }
+
+    /**
+     * Creates a new instance of {@link FindBugsResult}.
+     *
+     * @param build
+     *            the current build as owner of this action
+     * @param defaultEncoding
+     *            the default encoding to be used when reading and parsing files
+     * @param result
+     *            the parsed result with all annotations
+     * @param usePreviousBuildAsReference
+     *            determines whether to use the previous build as the reference
+     *            build
+     * @param useStableBuildAsReference
+     *            determines whether only stable builds should be used as
+     *            reference builds or not
+     * @param format
+     *            the format to store the warnings in
+     * @param actionType
+     *            the type of the result action
+     */
+    protected FindBugsResult(final Run<?, ?> build, final String defaultEncoding, final ParserResult result,
+            final boolean usePreviousBuildAsReference, final boolean useStableBuildAsReference,
+            final StorageFormat format, final Class<? extends ResultAction<FindBugsResult>> actionType) {
+        this(build, new FindBugsBuildHistory(build, actionType, usePreviousBuildAsReference, useStableBuildAsReference),
+                result, defaultEncoding, true, format, false);
+    }
+
+    /**
+     * Creates a new instance of {@link FindBugsResult} that stores the warnings in the specified
+     * format, unless they already have been stored in the build folder by a {@link StoringFilesParser}.
+     *
+     * @param build
+     *            the current build as owner of this action
+     * @param defaultEncoding
+     *            the default encoding to be used when reading and parsing files
+     * @param result
+     *            the parsed result with all annotations
+     * @param usePreviousBuildAsReference
+     *            determines whether to use the previous build as the reference
+     *            build
+     * @param useStableBuildAsReference
+     *            determines whether only stable builds should be used as
+     *            reference builds or not
+     * @param format
+     *            the format to store the warnings in
+     * @param isStored
+     *            determines whether the warnings have been stored already
+     */
+    public FindBugsResult(final Run<?, ?> build, final String defaultEncoding, final ParserResult result,
+            final boolean usePreviousBuildAsReference, final boolean useStableBuildAsReference,
+            final StorageFormat format, final boolean isStored) {
+        this(build, new FindBugsBuildHistory(build, FindBugsResultAction.class, usePreviousBuildAsReference,
+                useStableBuildAsReference), result, defaultEncoding, true, format, isStored);
     }
 
     FindBugsResult(final Run<?, ?> build, final BuildHistory history,
             final ParserResult result, final String defaultEncoding, final boolean canSerialize) {
+        this(build, history, result, defaultEncoding, canSerialize, StorageFormat.XML, false);
+    }
+
+    private FindBugsResult(final Run<?, ?> build, final BuildHistory history,
+            final ParserResult result, final String defaultEncoding, final boolean canSerialize,
+            final StorageFormat format, final boolean isStored) {
         super(build, history, result, defaultEncoding);
 
         init();
-        if (canSerialize) {
+        StorageFormat stored = format;
+        if (canSerialize && !isStored) {
+            List<FileAnnotation> bugs = getBugs(result);
+            serializeIndex(bugs);
+            stored = serializeWarnings(format, bugs, result);
+        }
+        if (stored != StorageFormat.XML) {
+            storageFileName = stored.getFileName();
+        }
+    }
+
+    private StorageFormat serializeWarnings(final StorageFormat format, final List<FileAnnotation> bugs,
+            final ParserResult result) {
+        if (format == StorageFormat.BINARY) {
+            return serializeBinary(bugs, result);
+        }
+        if (format == StorageFormat.COMPRESSED) {
+            return serializeCompressed(result.getAnnotations());
+        }
+        serializeAnnotations(result.getAnnotations());
+        return StorageFormat.XML;
+    }
+
+    static boolean isAgentStorageEnabled() {
+        return Boolean.getBoolean(AGENT_STORAGE);
+    }
+
+    /**
+     * Creates the XStream instance to write the warnings in the XML format. The instance is
+     * configured the same way as by {@link #configure(XStream)}.
+     *
+     * @return the XStream instance
+     */
+    static XStream createXStream() {
+        AnnotationStream xstream = new AnnotationStream();
+        xstream.alias("bug", Bug.class);
+        Bug.registerConverters(xstream);
+        return xstream;
+    }
+
+    /**
+     * Returns the bugs of the specified result in a fixed order. The positions in the instance
+     * hash index refer to this order, which is also the order of the bugs in the binary storage.
+     *
+     * @param result
+     *            the result with the bugs
+     * @return the bugs of the result
+     */
+    static List<FileAnnotation> getBugs(final ParserResult result) {
+        List<FileAnnotation> bugs = new ArrayList<FileAnnotation>();
+        for (FileAnnotation annotation : result.getAnnotations()) {
+            if (annotation instanceof Bug) {
+                bugs.add(annotation);
+            }
+        }
+        return bugs;
+    }
+
+    private void serializeIndex(final List<FileAnnotation> bugs) {
+        try {
+            InstanceHashIndex.create(bugs).write(new File(getOwner().getRootDir(), INDEX_FILE_NAME));
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Failed to write instance hash index.", exception);
+        }
+    }
+
+    private StorageFormat serializeBinary(final List<FileAnnotation> bugs, final ParserResult result) {
+        try {
+            BinaryBugFormat.write(bugs, getStorageFile(StorageFormat.BINARY));
+            return StorageFormat.BINARY;
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Failed to write binary warnings file, using XML instead.", exception);
+
             serializeAnnotations(result.getAnnotations());
+            return StorageFormat.XML;
+        }
+    }
+
+    private StorageFormat serializeCompressed(final Collection<FileAnnotation> annotations) {
+        try {
+            getCompressedFile().write(annotations.toArray(new FileAnnotation[annotations.size()]));
+            return StorageFormat.COMPRESSED;
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Failed to write compressed warnings file, using XML instead.", exception);
+
+            serializeAnnotations(annotations);
+            return StorageFormat.XML;
+        }
+    }
+
+    /**
+     * Returns the format the warnings of this build have been stored in.
+     *
+     * @return the storage format
+     */
+    public StorageFormat getStorageFormat() {
+        return StorageFormat.fromFileName(getSerializationFileName());
+    }
+
+    private File getStorageFile(final StorageFormat format) {
+        return new File(getOwner().getRootDir(), format.getFileName());
+    }
+
+    private CompressedXmlFile getCompressedFile() {
+        return new CompressedXmlFile(XStreamHolder.XSTREAM, getStorageFile(StorageFormat.COMPRESSED));
+    }
+
+    /**
+     * Returns the warnings of this build. Warnings that have been stored in the binary format or
+     * in the compressed XML format are read by this class, the uncompressed XML format is read by
+     * the super class.
+     *
+     * @return the warnings of this build
+     */
+    @Override
+    public JavaProject getProject() {
+        StorageFormat format = getStorageFormat();
+        if (format == StorageFormat.XML) {
+            return super.getProject();
+        }
+        return getLoadedProject(format == StorageFormat.BINARY);
+    }
+
+    private synchronized JavaProject getLoadedProject(final boolean isBinary) {
+        JavaProject project = getLoadedProject();
+        if (project == null) {
+            project = new JavaProject();
+            if (isBinary) {
+                MappedBugs bugs = getMappedBugs();
+                if (bugs != null) {
+                    project.addAnnotations(bugs);
+                }
+            }
+            else {
+                project.addAnnotations(readCompressed());
+            }
+            loadedProject = new WeakReference<JavaProject>(project);
         }
+        return project;
+    }
+
+    @CheckForNull
+    private synchronized JavaProject getLoadedProject() {
+        return loadedProject == null ? null : loadedProject.get();
+    }
+
+    /**
+     * Returns the warning with the specified key. If the warnings are stored in the binary format
+     * and have not been loaded yet, then just the requested warning is decoded from the mapped
+     * file, so the source and message views of a single warning do not load all warnings. The
+     * position of the warning is looked up in the key index of the mapping.
+     *
+     * @param key
+     *            the key of the warning
+     * @return the warning or <code>null</code> if there is no such warning
+     */
+    @Override
+    public FileAnnotation getAnnotation(final long key) {
+        if (getLoadedProject() == null) {
+            MappedBugs bugs = getMappedBugs();
+            if (bugs != null) {
+                return bugs.findBug(key);
+            }
+        }
+        return super.getAnnotation(key);
+    }
+
+    @Override
+    public FileAnnotation getAnnotation(final String key) {
+        try {
+            return getAnnotation(Long.parseLong(key));
+        }
+        catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    private FileAnnotation[] readCompressed() {
+        CompressedXmlFile file = getCompressedFile();
+        try {
+            return (FileAnnotation[])file.read();
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Failed to read compressed warnings file of " + getOwner(), exception);
+        }
+        return new FileAnnotation[0];
+    }
+
+    /**
+     * Returns the memory mapped warnings of this build if they have been stored in the binary
+     * format. Each bug is decoded when it is accessed, so views that show only some of the
+     * warnings do not need to load all warnings of the build. The file is mapped only once while
+     * the returned list is in use, the mapping is released by the garbage collector.
+     *
+     * @return the memory mapped warnings, or <code>null</code> if the warnings of this build
+     *         have not been stored in the binary format or could not be read
+     */
+    @CheckForNull
+    public synchronized MappedBugs getMappedBugs() {
+        if (getStorageFormat() != StorageFormat.BINARY) {
+            return null;
+        }
+        MappedBugs bugs = mappedBugs == null ? null : mappedBugs.get();
+        if (bugs == null) {
+            File binaryFile = getStorageFile(StorageFormat.BINARY);
+            try {
+                bugs = BinaryBugFormat.map(binaryFile);
+                mappedBugs = new WeakReference<MappedBugs>(bugs);
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.WARNING, "Failed to read binary warnings file " + binaryFile, exception);
+            }
+        }
+        return bugs;
     }
 
     private void init() {
         for (FileAnnotation annotation : getAnnotations()) {
             if (annotation instanceof Bug) {
-                Bug bug = (Bug) annotation;
+                Bug bug = (Bug)annotation;
                 if (bug.isInCloud()) {
                     if (bug.isShouldBeInCloud() && bug.getAgeInDays() <= LESS_ONE_WEEK) {
                         newThisWeek++;
@@ -113,6 +425,7 @@ public class FindBugsResult extends BuildResult {
     @Override
     protected void configure(final XStream xstream) {
         xstream.alias("bug", Bug.class);
+        Bug.registerConverters(xstream);
     }
 
     @Override
@@ -143,9 +456,15 @@ public class FindBugsResult extends BuildResult {
         return notInCloud;
     }
 
+    /**
+     * Returns the name of the file with the warnings of this build. The name identifies the
+     * {@link StorageFormat} of the warnings.
+     *
+     * @return the name of the file with the warnings
+     */
     @Override
     protected String getSerializationFileName() {
-        return "findbugs-warnings.xml";
+        return storageFileName == null ? StorageFormat.XML.getFileName() : storageFileName;
     }
 
     @Override
@@ -157,4 +476,12 @@ public class FindBugsResult extends BuildResult {
     protected Class<? extends ResultAction<? extends BuildResult>> getResultActionType() {
         return FindBugsResultAction.class;
     }
+
+    /**
+     * Creates the XStream instance to read and write the compressed XML format when it is used
+     * for the first time. XStream is thread safe once it has been configured.
+     */
+    private static final class XStreamHolder {
+        private static final XStream XSTREAM = createXStream();
+    }
 }
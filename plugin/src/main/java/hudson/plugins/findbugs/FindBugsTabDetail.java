@@ -5,17 +5,47 @@ import hudson.model.Run;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.views.DetailFactory;
 import hudson.plugins.analysis.views.TabDetail;
+import hudson.plugins.findbugs.parser.Bug;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+
+import javax.servlet.http.HttpServletResponse;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.Ancestor;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import com.google.common.collect.Lists;
 
 /**
- * Detail view for the FindBugs plug-in: uses different table visualization.
+ * Detail view for the FindBugs plug-in: uses different table visualization. The warnings table
+ * is rendered by the browser: the rows are requested page by page from {@link #doTable} and
+ * the messages of a warning are requested from {@link #doMessage} when a row is expanded. The
+ * description of the bug pattern is shared by all warnings of the same type, so it is requested by
+ * type from {@link FindBugsDescriptor#doPatternDescription} and cached by the browser.
  *
  * @author Ulli Hafner
  */
 public class FindBugsTabDetail extends TabDetail {
     private static final long serialVersionUID = -3117538321276802327L;
 
+    /** Number of warnings per page if the request does not specify the page size. */
+    static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAXIMUM_PAGE_SIZE = 1000;
+
     /**
      * Creates a new instance of {@link FindBugsTabDetail}.
      *
@@ -38,5 +68,305 @@ public class FindBugsTabDetail extends TabDetail {
     public String getWarnings() {
         return "findbugs-warnings.jelly";
     }
-}
 
+    /**
+     * Returns the URL of the JSON endpoint that provides the pages of the warnings table.
+     *
+     * @return the URL of the table
+     */
+    public String getTableUrl() {
+        return getDetailUrl() + "/table";
+    }
+
+    /**
+     * Returns the URL of the JSON endpoint that provides the message of a warning.
+     *
+     * @return the URL of the messages
+     */
+    public String getMessageUrl() {
+        return getDetailUrl() + "/message";
+    }
+
+    /**
+     * Returns the URL of the endpoint that provides the description of a bug pattern.
+     *
+     * @return the URL of the pattern descriptions
+     */
+    public String getDescriptionUrl() {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        if (request == null) {
+            return FindBugsDescriptor.DESCRIPTION_URL;
+        }
+        return request.getContextPath() + FindBugsDescriptor.DESCRIPTION_URL;
+    }
+
+    private String getDetailUrl() {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        if (request == null) {
+            return StringUtils.EMPTY;
+        }
+        Ancestor ancestor = request.findAncestor(this);
+        if (ancestor == null) {
+            return StringUtils.removeEnd(request.getRequestURI(), "/");
+        }
+        return ancestor.getUrl();
+    }
+
+    /**
+     * Returns a page of the warnings table as JSON object. The request parameters {@code page}
+     * (starting with 0), {@code size}, {@code sort} (one of {@link SortKey}) and
+     * {@code descending} select the page. Messages and tooltips are not part of the page.
+     *
+     * @param request
+     *            Stapler request
+     * @param response
+     *            Stapler response
+     * @throws IOException
+     *             if the response could not be written
+     */
+    public void doTable(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        int size = Math.min(MAXIMUM_PAGE_SIZE, Math.max(1, getParameter(request, "size", DEFAULT_PAGE_SIZE)));
+        int page = Math.max(0, getParameter(request, "page", 0));
+        SortKey sortKey = SortKey.fromString(request.getParameter("sort"));
+        boolean descending = Boolean.parseBoolean(request.getParameter("descending"));
+
+        List<FileAnnotation> warnings = getSortedWarnings(sortKey, descending);
+        JSONArray rows = new JSONArray();
+        int end = getPageStart(page + 1L, size, warnings.size());
+        for (int i = getPageStart(page, size, warnings.size()); i < end; i++) {
+            rows.add(toJson(warnings.get(i)));
+        }
+
+        JSONObject table = new JSONObject();
+        table.put("total", warnings.size());
+        table.put("page", page);
+        table.put("size", size);
+        table.put("sort", sortKey.name().toLowerCase());
+        table.put("descending", descending);
+        table.put("warnings", rows);
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(table.toString());
+    }
+
+    /**
+     * Returns the message of the warning with the key given by the request parameter {@code key}
+     * as JSON object. The message is part of the FindBugs report, so it is sent as plain text and
+     * must not be rendered as HTML by the browser.
+     *
+     * @param request
+     *            Stapler request
+     * @param response
+     *            Stapler response
+     * @throws IOException
+     *             if the response could not be written
+     */
+    public void doMessage(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        long key;
+        try {
+            key = Long.parseLong(request.getParameter("key"));
+        }
+        catch (NumberFormatException exception) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid key");
+            return;
+        }
+        FileAnnotation warning = getWarning(key);
+        if (warning == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+        else {
+            JSONObject message = new JSONObject();
+            message.put("key", warning.getKey());
+            message.put("message", getPlainMessage(warning));
+
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write(message.toString());
+        }
+    }
+
+    /**
+     * Returns the message of the specified warning. The message of a bug is returned without the
+     * HTML of its cloud information.
+     */
+    private static String getPlainMessage(final FileAnnotation warning) {
+        if (warning instanceof Bug) {
+            return ((Bug)warning).getPlainMessage();
+        }
+        return warning.getMessage();
+    }
+
+    /**
+     * Returns the warning of this tab with the specified key.
+     *
+     * @param key
+     *            the key of the warning
+     * @return the warning or <code>null</code> if this tab has no such warning
+     */
+    @CheckForNull
+    FileAnnotation getWarning(final long key) {
+        for (FileAnnotation warning : getAnnotations()) {
+            if (warning.getKey() == key) {
+                return warning;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the first warning of the specified page. Pages beyond the last
+     * warning start at the end of the warnings.
+     *
+     * @param page
+     *            the page, starting with 0
+     * @param size
+     *            the number of warnings per page
+     * @param total
+     *            the number of warnings
+     * @return the index of the first warning of the page
+     */
+    static int getPageStart(final long page, final int size, final int total) {
+        return (int)Math.min(total, page * size);
+    }
+
+    private static int getParameter(final StaplerRequest request, final String name, final int defaultValue) {
+        try {
+            return Integer.parseInt(request.getParameter(name));
+        }
+        catch (NumberFormatException exception) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the warnings of this tab in the specified order. Since the order of the warnings is
+     * total, the descending order is the reversed ascending order. The sorted warnings are not
+     * cached: Stapler creates a new tab for each request.
+     *
+     * @param sortKey
+     *            the property to sort by
+     * @param descending
+     *            determines whether to sort in descending order
+     * @return the sorted warnings
+     */
+    List<FileAnnotation> getSortedWarnings(final SortKey sortKey, final boolean descending) {
+        List<FileAnnotation> warnings = new ArrayList<FileAnnotation>(getAnnotations());
+        Collections.sort(warnings, new WarningComparator(sortKey));
+        if (descending) {
+            return Lists.reverse(warnings);
+        }
+        return warnings;
+    }
+
+    private JSONObject toJson(final FileAnnotation warning) {
+        JSONObject row = new JSONObject();
+        row.put("key", warning.getKey());
+        row.put("file", warning.getShortFileName());
+        row.put("line", warning.getPrimaryLineNumber());
+        if (warning.canDisplayFile(getOwner())) {
+            row.put("sourceUrl", "source." + warning.getKey() + "/#" + warning.getPrimaryLineNumber());
+        }
+        row.put("module", warning.getModuleName());
+        row.put("moduleUrl", "module." + StringUtils.defaultString(warning.getModuleName()).hashCode() + "/");
+        row.put("package", warning.getPackageName());
+        row.put("packageUrl", "package." + StringUtils.defaultString(warning.getPackageName()).hashCode() + "/");
+        row.put("priority", warning.getPriority().getLocalizedString());
+        row.put("rank", getRank(warning));
+        row.put("type", warning.getType());
+        row.put("category", warning.getCategory());
+        return row;
+    }
+
+    private static int getRank(final FileAnnotation warning) {
+        if (warning instanceof Bug) {
+            return ((Bug)warning).getRank();
+        }
+        return 0;
+    }
+
+    /**
+     * The properties the warnings table can be sorted by.
+     */
+    enum SortKey {
+        RANK, PRIORITY, FILE, TYPE, CATEGORY, MODULE, PACKAGE;
+
+        static SortKey fromString(final String value) {
+            for (SortKey key : values()) {
+                if (key.name().equalsIgnoreCase(value)) {
+                    return key;
+                }
+            }
+            return RANK;
+        }
+    }
+
+    /**
+     * Compares warnings by a {@link SortKey}. Warnings with the same value are ordered by file
+     * name, line number, and key, so the pages are stable.
+     */
+    private static final class WarningComparator implements Comparator<FileAnnotation>, Serializable {
+        private static final long serialVersionUID = 5184640313264627282L;
+
+        private final SortKey sortKey;
+
+        WarningComparator(final SortKey sortKey) {
+            this.sortKey = sortKey;
+        }
+
+        @Override
+        public int compare(final FileAnnotation left, final FileAnnotation right) {
+            int result = compareBy(left, right);
+            if (result == 0) {
+                result = compare(left.getFileName(), right.getFileName());
+            }
+            if (result == 0) {
+                result = compare(left.getPrimaryLineNumber(), right.getPrimaryLineNumber());
+            }
+            if (result == 0) {
+                result = compare(left.getKey(), right.getKey());
+            }
+            return result;
+        }
+
+        private int compareBy(final FileAnnotation left, final FileAnnotation right) {
+            switch (sortKey) {
+                case PRIORITY:
+                    return left.getPriority().compareTo(right.getPriority());
+                case FILE:
+                    return 0;
+                case TYPE:
+                    return compare(left.getType(), right.getType());
+                case CATEGORY:
+                    return compare(left.getCategory(), right.getCategory());
+                case MODULE:
+                    return compare(left.getModuleName(), right.getModuleName());
+                case PACKAGE:
+                    return compare(left.getPackageName(), right.getPackageName());
+                default:
+                    int result = compare(getSortRank(left), getSortRank(right));
+                    if (result == 0) {
+                        return left.getPriority().compareTo(right.getPriority());
+                    }
+                    return result;
+            }
+        }
+
+        /**
+         * Returns the rank of the warning, warnings without a rank are sorted after all ranked warnings.
+         */
+        private static int getSortRank(final FileAnnotation warning) {
+            int rank = getRank(warning);
+            return rank > 0 ? rank : Integer.MAX_VALUE;
+        }
+
+        private static int compare(final String left, final String right) {
+            return StringUtils.defaultString(left).compareTo(StringUtils.defaultString(right));
+        }
+
+        private static int compare(final long left, final long right) {
+            if (left < right) {
+                return -1;
+            }
+            return left == right ? 0 : 1;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package hudson.plugins.findbugs;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+import jenkins.model.Jenkins;
+
+import hudson.ExtensionList;
+import hudson.ExtensionPoint;
+
+/**
+ * A bundle of FindBugs bug pattern descriptions, e.g. the descriptions of a detector plug-in. A bundle consists of
+ * a messages file in the FindBugs {@code messagecollection.xsd} format for the default (English) locale and
+ * optional translations for other languages. Other plug-ins can provide additional bundles by registering an
+ * {@link hudson.Extension} of this type.
+ *
+ * @author Ulli Hafner
+ */
+public class MessageBundle implements ExtensionPoint {
+    /** The language key of the default messages file. */
+    public static final String DEFAULT_LANGUAGE = StringUtils.EMPTY;
+
+    private final String name;
+    private final Class<?> owner;
+    private final Map<String, String> fileNames;
+
+    /**
+     * Creates a new instance of {@link MessageBundle}.
+     *
+     * @param name
+     *            the name of the bundle
+     * @param owner
+     *            the class that is used to resolve the messages files
+     * @param fileNames
+     *            the names of the messages files (relative to the owner class), mapped by the language of the
+     *            file (e.g., <code>fr</code>). The default messages file uses the key {@link #DEFAULT_LANGUAGE}.
+     */
+    public MessageBundle(final String name, final Class<?> owner, final Map<String, String> fileNames) {
+        this.name = name;
+        this.owner = owner;
+        this.fileNames = Collections.unmodifiableMap(new HashMap<String, String>(fileNames));
+    }
+
+    /**
+     * Returns the name of this bundle.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the class that is used to resolve the messages files.
+     *
+     * @return the owner of the messages files
+     */
+    public Class<?> getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the messages file for the specified language.
+     *
+     * @param language
+     *            the language, use {@link #DEFAULT_LANGUAGE} for the default messages file
+     * @return the name of the messages file or <code>null</code> if this bundle has no messages for the language
+     */
+    public String getFileName(final String language) {
+        return fileNames.get(language);
+    }
+
+    /**
+     * Returns whether this bundle contains messages for the specified language.
+     *
+     * @param language
+     *            the language
+     * @return <code>true</code> if this bundle contains messages for the language, <code>false</code> otherwise
+     */
+    public boolean hasLanguage(final String language) {
+        return fileNames.containsKey(language);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Returns all registered message bundles. If Jenkins is not running (e.g., on an agent), then an empty list
+     * is returned.
+     *
+     * @return the registered message bundles
+     */
+    public static Iterable<MessageBundle> all() {
+        try {
+            Jenkins jenkins = Jenkins.getInstance();
+            if (jenkins != null) {
+                return ExtensionList.lookup(MessageBundle.class);
+            }
+        }
+        catch (IllegalStateException exception) { // NOCHECKSTYLE
+            // not running on the controller
+        }
+        return Collections.emptyList();
+    }
+}
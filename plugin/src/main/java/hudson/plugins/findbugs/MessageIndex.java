@@ -0,0 +1,304 @@
+package hudson.plugins.findbugs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Index of the bug patterns of a FindBugs messages file. The index maps each bug type to the position (offset and
+ * length) of its {@code BugPattern} element within the file. Only the short descriptions are kept in memory, the
+ * HTML details of a bug pattern are read from the file when they are requested.
+ *
+ * @author Ulli Hafner
+ */
+class MessageIndex {
+    private static final String ENCODING = "UTF-8";
+    private static final String BUG_PATTERN = "BugPattern";
+    private static final String DETAILS = "Details";
+    private static final String SHORT_DESCRIPTION = "ShortDescription";
+
+    /** The factory of the readers, configured once since the lookup of the implementation is expensive. */
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static final byte[] START_TAG = bytes("<" + BUG_PATTERN);
+    private static final byte[] END_TAG = bytes("</" + BUG_PATTERN + ">");
+    private static final byte[] COMMENT_START = bytes("<!--");
+    private static final byte[] COMMENT_END = bytes("-->");
+    private static final byte[] CDATA_START = bytes("<![CDATA[");
+    private static final byte[] CDATA_END = bytes("]]>");
+
+    /** Estimated size of two hash map entries and three string headers. */
+    private static final int ENTRY_OVERHEAD = 2 * 32 + 3 * 40;
+    /** Estimated size of a position array. */
+    private static final int POSITION_SIZE = 32;
+
+    private final Class<?> owner;
+    private final String fileName;
+    private final Map<String, long[]> positions = new HashMap<String, long[]>();
+    private final Map<String, String> shortDescriptions = new HashMap<String, String>();
+
+    private static byte[] bytes(final String text) {
+        try {
+            return text.getBytes(ENCODING);
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Creates the index of the specified messages file. The file is read once, afterwards only the index and the
+     * short descriptions are retained.
+     *
+     * @param owner
+     *            the class that is used to resolve the messages file
+     * @param fileName
+     *            the name of the messages file, relative to the owner class
+     * @throws IOException
+     *             if the file can't be read
+     * @throws XMLStreamException
+     *             if the file contains no valid XML
+     */
+    MessageIndex(final Class<?> owner, final String fileName) throws IOException, XMLStreamException {
+        this.owner = owner;
+        this.fileName = fileName;
+
+        byte[] content = read();
+        int position = 0;
+        while (position < content.length) {
+            if (startsWith(content, position, COMMENT_START)) {
+                position = skip(content, position, COMMENT_END);
+            }
+            else if (startsWith(content, position, CDATA_START)) {
+                position = skip(content, position, CDATA_END);
+            }
+            else if (isStartTag(content, position)) {
+                int end = findEndTag(content, position);
+                index(content, position, end - position);
+                position = end;
+            }
+            else {
+                position++;
+            }
+        }
+    }
+
+    private byte[] read() throws IOException {
+        InputStream file = null;
+        try {
+            file = open();
+            return IOUtils.toByteArray(file);
+        }
+        finally {
+            IOUtils.closeQuietly(file);
+        }
+    }
+
+    private InputStream open() throws IOException {
+        InputStream file = owner.getResourceAsStream(fileName);
+        if (file == null) {
+            throw new IOException("Messages file not found: " + fileName);
+        }
+        return file;
+    }
+
+    private static boolean startsWith(final byte[] content, final int position, final byte[] prefix) {
+        if (position + prefix.length > content.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (content[position + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStartTag(final byte[] content, final int position) {
+        if (!startsWith(content, position, START_TAG)) {
+            return false;
+        }
+        int next = position + START_TAG.length;
+        return next < content.length && (content[next] == '>' || Character.isWhitespace(content[next]));
+    }
+
+    /**
+     * Returns the position after the next occurrence of the specified end marker.
+     */
+    private static int skip(final byte[] content, final int position, final byte[] end) {
+        for (int i = position; i < content.length; i++) {
+            if (startsWith(content, i, end)) {
+                return i + end.length;
+            }
+        }
+        return content.length;
+    }
+
+    /**
+     * Returns the position after the end tag of the bug pattern that starts at the specified position.
+     */
+    private static int findEndTag(final byte[] content, final int start) {
+        int position = start;
+        while (position < content.length) {
+            if (startsWith(content, position, CDATA_START)) {
+                position = skip(content, position, CDATA_END);
+            }
+            else if (startsWith(content, position, COMMENT_START)) {
+                position = skip(content, position, COMMENT_END);
+            }
+            else if (startsWith(content, position, END_TAG)) {
+                return position + END_TAG.length;
+            }
+            else {
+                position++;
+            }
+        }
+        return content.length;
+    }
+
+    private void index(final byte[] content, final int offset, final int length) throws XMLStreamException {
+        Pattern pattern = parse(new ByteArrayInputStream(content, offset, length), false);
+        if (pattern.getType() != null) {
+            positions.put(pattern.getType(), new long[] {offset, length});
+            shortDescriptions.put(pattern.getType(), pattern.getShortDescription());
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static Pattern parse(final InputStream fragment, final boolean readDetails) throws XMLStreamException {
+        Pattern pattern = new Pattern();
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(fragment, ENCODING);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (BUG_PATTERN.equals(name)) {
+                        pattern.setType(reader.getAttributeValue(null, "type"));
+                    }
+                    else if (SHORT_DESCRIPTION.equals(name)) {
+                        pattern.setShortDescription(reader.getElementText().trim());
+                    }
+                    else if (DETAILS.equals(name) && readDetails) {
+                        pattern.setDescription(reader.getElementText().trim());
+                    }
+                }
+            }
+            return pattern;
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the bug types of this index.
+     *
+     * @return the bug types
+     */
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(positions.keySet());
+    }
+
+    /**
+     * Returns whether the specified bug type is part of this index.
+     *
+     * @param type
+     *            the bug type
+     * @return <code>true</code> if the bug type is described in the messages file, <code>false</code> otherwise
+     */
+    public boolean contains(final String type) {
+        return positions.containsKey(type);
+    }
+
+    /**
+     * Returns the short description of the specified bug type.
+     *
+     * @param type
+     *            the bug type
+     * @return the short description, or <code>null</code> if the type is not part of this index
+     */
+    public String getShortDescription(final String type) {
+        return shortDescriptions.get(type);
+    }
+
+    /**
+     * Reads the HTML description of the specified bug type from the messages file.
+     *
+     * @param type
+     *            the bug type
+     * @return the HTML description, or <code>null</code> if the type is not part of this index
+     * @throws IOException
+     *             if the file can't be read
+     * @throws XMLStreamException
+     *             if the file contains no valid XML
+     */
+    public String readDescription(final String type) throws IOException, XMLStreamException {
+        long[] position = positions.get(type);
+        if (position == null) {
+            return null;
+        }
+        InputStream file = null;
+        try {
+            file = open();
+            IOUtils.skipFully(file, position[0]);
+            byte[] fragment = new byte[(int)position[1]];
+            IOUtils.readFully(file, fragment);
+            return parse(new ByteArrayInputStream(fragment), true).getDescription();
+        }
+        finally {
+            IOUtils.closeQuietly(file);
+        }
+    }
+
+    /**
+     * Returns the name of the indexed messages file.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns an estimation of the heap memory that is occupied by this index, i.e. by the bug types, their
+     * positions, and their short descriptions.
+     *
+     * @return the estimated number of bytes
+     */
+    public long getMemoryFootprint() {
+        long bytes = 0;
+        for (Map.Entry<String, String> entry : shortDescriptions.entrySet()) {
+            bytes += ENTRY_OVERHEAD + POSITION_SIZE + 2L * entry.getKey().length()
+                    + 2L * StringUtils.length(entry.getValue());
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of indexed bug patterns.
+     *
+     * @return the number of bug patterns
+     */
+    public int size() {
+        return positions.size();
+    }
+}
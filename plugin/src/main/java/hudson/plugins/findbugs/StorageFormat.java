@@ -0,0 +1,86 @@
+package hudson.plugins.findbugs;
+
+import javax.annotation.CheckForNull;
+
+import hudson.plugins.findbugs.parser.BinaryBugFormat;
+
+/**
+ * The formats the warnings of a build can be stored in. Each format uses its own file in the
+ * build folder, so the format of a build is identified by the name of this file (see
+ * {@link FindBugsResult#getSerializationFileName()}).
+ *
+ * @author Ulli Hafner
+ */
+public enum StorageFormat {
+    /** The XML format of XStream, the format that older releases and other tools read. */
+    XML("findbugs-warnings.xml") {
+        @Override
+        public String getDisplayName() {
+            return Messages.FindBugs_StorageFormat_XML();
+        }
+    },
+    /** The XML format of XStream, compressed with GZIP. */
+    COMPRESSED("findbugs-warnings.xml.gz") {
+        @Override
+        public String getDisplayName() {
+            return Messages.FindBugs_StorageFormat_COMPRESSED();
+        }
+    },
+    /** The compact {@link BinaryBugFormat}. */
+    BINARY("findbugs-warnings.bin") {
+        @Override
+        public String getDisplayName() {
+            return Messages.FindBugs_StorageFormat_BINARY();
+        }
+    };
+
+    private final String fileName;
+
+    StorageFormat(final String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Returns the name of the file in the build folder that contains the warnings.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the localized name of this format.
+     *
+     * @return the display name
+     */
+    public abstract String getDisplayName();
+
+    /**
+     * Returns the format that uses the specified file name.
+     *
+     * @param fileName
+     *            the name of the file with the warnings, might be <code>null</code> for builds of
+     *            older releases
+     * @return the format of the file, {@link #XML} if the file name is unknown
+     */
+    public static StorageFormat fromFileName(@CheckForNull final String fileName) {
+        for (StorageFormat format : values()) {
+            if (format.getFileName().equals(fileName)) {
+                return format;
+            }
+        }
+        return XML;
+    }
+
+    /**
+     * Returns the specified format, or the default format if no format has been configured.
+     *
+     * @param format
+     *            the configured format, might be <code>null</code>
+     * @return the format to use
+     */
+    public static StorageFormat valueOrDefault(@CheckForNull final StorageFormat format) {
+        return format == null ? XML : format;
+    }
+}
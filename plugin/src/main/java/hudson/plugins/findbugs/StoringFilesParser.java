@@ -0,0 +1,181 @@
+package hudson.plugins.findbugs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.MasterToSlaveFileCallable;
+
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.plugins.analysis.core.ParserResult;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.findbugs.parser.BinaryBugFormat;
+import hudson.plugins.findbugs.parser.Bug;
+import hudson.plugins.findbugs.parser.EncodedParserResult;
+import hudson.plugins.findbugs.parser.ErrorMessage;
+import hudson.plugins.findbugs.parser.FindBugsFilesParser;
+import hudson.plugins.findbugs.parser.InstanceHashIndex;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Parses the FindBugs files on the agent and lets the agent write the warnings into the build
+ * folder on the controller, using the {@link StorageFormat} of the job. The files are streamed to
+ * the controller while they are written, so the controller does not need to serialize the
+ * warnings. The agent returns just the modules, errors, log messages, and the number of warnings.
+ * <p>
+ * The counters and the new and fixed warnings of a {@link FindBugsResult} are computed from the
+ * warnings of the parsed result, so the controller reads the stored warnings from its local build
+ * folder. The authors of the warnings are not assigned, since the warnings are stored before the
+ * controller could assign them. If the agent fails to store the warnings, then the warnings are
+ * transferred to the controller as usual and stored there.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class StoringFilesParser {
+    private static final Logger LOGGER = Logger.getLogger(StoringFilesParser.class.getName());
+
+    private final FindBugsFilesParser parser;
+    private final FilePath workspace;
+    private final File buildFolder;
+    private final StorageFormat format;
+
+    /** Determines whether the warnings have been stored by the agent, set by {@link #parse()}. */
+    private boolean isStored;
+
+    /**
+     * Creates a new instance of {@link StoringFilesParser}.
+     *
+     * @param parser
+     *            the parser of the FindBugs files
+     * @param build
+     *            the build to store the warnings for
+     * @param workspace
+     *            the workspace with the FindBugs files
+     * @param format
+     *            the format to store the warnings in
+     */
+    StoringFilesParser(final FindBugsFilesParser parser, final Run<?, ?> build, final FilePath workspace,
+            final StorageFormat format) {
+        this.parser = parser;
+        this.workspace = workspace;
+        this.format = format;
+        buildFolder = build.getRootDir();
+    }
+
+    /**
+     * Parses the FindBugs files in the workspace and stores the warnings in the build folder.
+     *
+     * @return the parsed result
+     * @throws IOException
+     *             if the files could not be parsed or the stored warnings could not be read
+     * @throws InterruptedException
+     *             if the user canceled the build
+     * @see #isStored()
+     */
+    public ParserResult parse() throws IOException, InterruptedException {
+        EncodedParserResult result = workspace.act(new StoringCallable(parser, new FilePath(buildFolder), format));
+        isStored = !result.containsBugs();
+        if (isStored) {
+            return result.decode(readStoredBugs());
+        }
+        return result.decode();
+    }
+
+    /**
+     * Returns whether the warnings that have been parsed by {@link #parse()} have been stored by
+     * the agent.
+     *
+     * @return <code>true</code> if the warnings have been stored, <code>false</code> if the agent
+     *         failed to store the warnings, so the controller needs to store them
+     */
+    public boolean isStored() {
+        return isStored;
+    }
+
+    private Collection<FileAnnotation> readStoredBugs() throws IOException {
+        File file = new File(buildFolder, format.getFileName());
+        if (format == StorageFormat.BINARY) {
+            return BinaryBugFormat.read(file);
+        }
+        List<FileAnnotation> bugs = new ArrayList<FileAnnotation>();
+        for (FileAnnotation annotation : (FileAnnotation[])new CompressedXmlFile(FindBugsResult.createXStream(),
+                file).read()) {
+            if (annotation instanceof Bug) { // the other annotations are part of the parsed result
+                bugs.add(annotation);
+            }
+        }
+        return bugs;
+    }
+
+    /**
+     * Parses the FindBugs files and writes the instance hash index and the warnings into the build
+     * folder. Returns the parsed result without the bugs, or with the bugs if they could not be
+     * written.
+     */
+    private static final class StoringCallable extends MasterToSlaveFileCallable<EncodedParserResult> {
+        private static final long serialVersionUID = 6071693375580361527L;
+
+        private final FindBugsFilesParser parser;
+        private final FilePath buildFolder;
+        private final StorageFormat format;
+
+        StoringCallable(final FindBugsFilesParser parser, final FilePath buildFolder, final StorageFormat format) {
+            super();
+
+            this.parser = parser;
+            this.buildFolder = buildFolder;
+            this.format = format;
+        }
+
+        @Override
+        public EncodedParserResult invoke(final File workspace, final VirtualChannel channel) throws IOException,
+                InterruptedException {
+            List<ErrorMessage> errors = new ArrayList<ErrorMessage>();
+            ParserResult result = parser.parse(workspace, errors);
+
+            try {
+                store(result);
+                return new EncodedParserResult(result, errors, false);
+            }
+            catch (IOException exception) {
+                LOGGER.log(Level.WARNING, "Agent failed to store the FindBugs warnings, storing them on the controller",
+                        exception);
+                return new EncodedParserResult(result, errors, true);
+            }
+        }
+
+        private void store(final ParserResult result) throws IOException, InterruptedException {
+            List<FileAnnotation> bugs = FindBugsResult.getBugs(result);
+            OutputStream index = buildFolder.child(FindBugsResult.INDEX_FILE_NAME).write();
+            try {
+                InstanceHashIndex.create(bugs).write(index);
+            }
+            finally {
+                index.close();
+            }
+
+            OutputStream stream = buildFolder.child(format.getFileName()).write();
+            try {
+                if (format == StorageFormat.BINARY) {
+                    BinaryBugFormat.write(bugs, stream);
+                }
+                else {
+                    Collection<FileAnnotation> annotations = result.getAnnotations();
+                    CompressedXmlFile.write(FindBugsResult.createXStream(),
+                            annotations.toArray(new FileAnnotation[annotations.size()]), stream,
+                            format == StorageFormat.COMPRESSED);
+                }
+            }
+            finally {
+                stream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import javax.annotation.CheckForNull;
+
+import org.apache.commons.io.IOUtils;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.LineRange;
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Compact binary format to persist the bugs of a build. In contrast to the XML format, the bugs are stored in
+ * columns: all strings (messages, file names, packages, modules, categories, types, authors, ...) are stored only once in a
+ * dictionary and the bugs refer to the strings by their index. Priority, rank, and the cloud flags are packed into
+ * a single integer and the instance hashes are stored as raw 16 bytes. Since all columns have a fixed width, a
+ * single bug can be decoded without decoding the other bugs.
+ * <p>
+ * Layout: magic number, version, number of bugs, dictionary (number of strings, followed by length and UTF-8 bytes
+ * of each string), the fixed width columns, the line range offsets and the line ranges.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+public final class BinaryBugFormat {
+    /** Magic number at the beginning of each file: "FBW" followed by a zero byte. */
+    static final int MAGIC = 0x46425700;
+    private static final int VERSION = 2;
+    /** The first version without the blame information, files of this version can still be read. */
+    private static final int VERSION_WITHOUT_BLAME = 1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** String references that are stored for each bug. */
+    private static final int STRING_COLUMNS = 13;
+    private static final int STRING_COLUMNS_WITHOUT_BLAME = 10;
+    private static final int MESSAGE = 0;
+    private static final int CATEGORY = 1;
+    private static final int TYPE = 2;
+    private static final int TOOLTIP = 3;
+    private static final int FILE_NAME = 4;
+    private static final int MODULE_NAME = 5;
+    private static final int PACKAGE_NAME = 6;
+    private static final int PATH_NAME = 7;
+    private static final int ORIGIN = 8;
+    private static final int DETAILS_URL = 9;
+    private static final int AUTHOR_NAME = 10;
+    private static final int AUTHOR_EMAIL = 11;
+    private static final int COMMIT_ID = 12;
+
+    private static final int NO_STRING = -1;
+    private static final int HASH_LENGTH = 16;
+
+    private static final int PRIORITY_MASK = 0x3;
+    private static final int IN_CLOUD = 1 << 2;
+    private static final int SHOULD_BE_IN_CLOUD = 1 << 3;
+    private static final int NOT_A_PROBLEM = 1 << 4;
+    private static final int HASH_SHIFT = 5;
+    private static final int HASH_MASK = 0x3;
+    private static final int NO_HASH = 0;
+    private static final int RAW_HASH = 1;
+    private static final int STRING_HASH = 2;
+    private static final int RANK_SHIFT = 8;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    /**
+     * Width of the start and end column that have been added in version 2. The primary line is not stored, it is the
+     * first line of the line ranges.
+     */
+    private static final int LOCATION_WIDTH = 4 + 4;
+
+    /** Width of all fixed width columns of a single bug in bytes. */
+    private static final int RECORD_WIDTH = getRecordWidth(STRING_COLUMNS, LOCATION_WIDTH);
+
+    private static int getRecordWidth(final int stringColumns, final int locationWidth) {
+        return 8 + 4 * stringColumns + 4 + 4 + 4 + 8 + 8 + 4 + locationWidth + HASH_LENGTH;
+    }
+
+    /**
+     * Writes the specified bugs to the given file. Annotations that are not bugs are skipped.
+     *
+     * @param annotations
+     *            the bugs to write
+     * @param file
+     *            the file to write to
+     * @throws IOException
+     *             if the file could not be written
+     */
+    public static void write(final Collection<? extends FileAnnotation> annotations, final File file) throws IOException {
+        OutputStream stream = null;
+        try {
+            stream = new BufferedOutputStream(new FileOutputStream(file));
+            write(annotations, stream);
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Writes the specified bugs to the given stream. Annotations that are not bugs are skipped.
+     *
+     * @param annotations
+     *            the bugs to write
+     * @param stream
+     *            the stream to write to
+     * @throws IOException
+     *             if the stream could not be written
+     */
+    public static void write(final Collection<? extends FileAnnotation> annotations, final OutputStream stream)
+            throws IOException {
+        List<Bug> bugs = new ArrayList<Bug>();
+        for (FileAnnotation annotation : annotations) {
+            if (annotation instanceof Bug) {
+                bugs.add((Bug)annotation);
+            }
+        }
+
+        Dictionary dictionary = new Dictionary();
+        int[][] strings = new int[bugs.size()][];
+        for (int i = 0; i < bugs.size(); i++) {
+            strings[i] = dictionary.addAll(bugs.get(i));
+        }
+
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(bugs.size());
+        dictionary.write(output);
+
+        for (int i = 0; i < bugs.size(); i++) {
+            writeRecord(output, bugs.get(i), strings[i], dictionary);
+        }
+
+        int offset = 0;
+        for (Bug bug : bugs) {
+            output.writeInt(offset);
+            offset += bug.getLineRanges().size();
+        }
+        output.writeInt(offset);
+        for (Bug bug : bugs) {
+            for (LineRange range : bug.getLineRanges()) {
+                output.writeInt(range.getStart());
+                output.writeInt(range.getEnd());
+            }
+        }
+        output.flush();
+    }
+
+    private static void writeRecord(final DataOutputStream output, final Bug bug, final int[] strings,
+            final Dictionary dictionary) throws IOException {
+        output.writeLong(bug.getKey());
+        for (int index : strings) {
+            output.writeInt(index);
+        }
+
+        HexishString hash = bug.getHash();
+        byte[] hashBytes = hash == null ? null : hash.getBytes();
+        int hashKind;
+        if (hash == null) {
+            hashKind = NO_HASH;
+        }
+        else if (hashBytes != null && hashBytes.length == HASH_LENGTH) {
+            hashKind = RAW_HASH;
+        }
+        else {
+            hashKind = STRING_HASH;
+        }
+        int flags = bug.getPriority().ordinal()
+                | (bug.isInCloud() ? IN_CLOUD : 0)
+                | (bug.isShouldBeInCloud() ? SHOULD_BE_IN_CLOUD : 0)
+                | (bug.isNotAProblem() ? NOT_A_PROBLEM : 0)
+                | hashKind << HASH_SHIFT
+                | bug.getRank() << RANK_SHIFT;
+        output.writeInt(flags);
+        output.writeInt(bug.getAgeInDays());
+        output.writeInt(bug.getReviewCount());
+        output.writeLong(bug.getFirstSeen());
+        output.writeLong(bug.getContextHashCode());
+        output.writeInt(bug.getBuild());
+        output.writeInt(bug.getColumnStart());
+        output.writeInt(bug.getColumnEnd());
+
+        byte[] hashColumn = new byte[HASH_LENGTH];
+        if (hashKind == RAW_HASH) {
+            hashColumn = hashBytes;
+        }
+        else if (hashKind == STRING_HASH) {
+            ByteBuffer.wrap(hashColumn).putInt(dictionary.indexOf(hash.toString()));
+        }
+        output.write(hashColumn);
+    }
+
+    /**
+     * Reads all bugs of the specified file.
+     *
+     * @param file
+     *            the file to read
+     * @return the bugs
+     * @throws IOException
+     *             if the file could not be read or is not in the binary format
+     */
+    public static List<FileAnnotation> read(final File file) throws IOException {
+        return read(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Reads all bugs of the specified content.
+     *
+     * @param content
+     *            the bugs in the binary format
+     * @return the bugs
+     * @throws IOException
+     *             if the content is not in the binary format
+     */
+    public static List<FileAnnotation> read(final byte[] content) throws IOException {
+        return new ArrayList<FileAnnotation>(new MappedBugs(ByteBuffer.wrap(content)));
+    }
+
+    /**
+     * Maps the specified file into memory. The bugs of the file are not decoded, each call of
+     * {@link MappedBugs#get(int)} decodes the requested bug from the mapped file. The JDK provides no API to release
+     * a mapping, so the mapping is released when the returned list is garbage collected. Until then the file can't
+     * be deleted on Windows, so the caller should map a file only once and share the returned list.
+     *
+     * @param file
+     *            the file to map
+     * @return the bugs of the file
+     * @throws IOException
+     *             if the file could not be read or is not in the binary format
+     */
+    public static MappedBugs map(final File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            return new MappedBugs(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Returns whether the specified content starts with the magic number of this format.
+     *
+     * @param buffer
+     *            the content to check
+     * @return <code>true</code> if the content is in the binary format
+     */
+    public static boolean isBinary(final ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * The bugs of a buffer in the binary format. Each bug is decoded independently of the other bugs when it is
+     * requested, the decoded bugs are not retained. The buffer is only read using absolute positions, so the bugs
+     * can be decoded by several threads at the same time.
+     */
+    public static final class MappedBugs extends AbstractList<Bug> implements RandomAccess {
+        private final ByteBuffer buffer;
+        private final int stringColumns;
+        private final int recordWidth;
+        private final boolean hasBlame;
+        private final int[] stringOffsets;
+        private final String[] strings;
+        private final int size;
+        private final int records;
+        private final int offsets;
+        private final int ranges;
+        /** The positions of the bugs by their keys, created when a bug is looked up by its key for the first time. */
+        private volatile Map<Long, Integer> positions;
+
+        /**
+         * Creates a new instance for the specified buffer. Only the positions of the dictionary entries are read.
+         *
+         * @param buffer
+         *            the buffer with the bugs
+         * @throws IOException
+         *             if the buffer does not contain bugs in the binary format
+         */
+        MappedBugs(final ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Unknown format of persisted FindBugs warnings");
+            }
+            int version = buffer.getInt(4);
+            if (version == VERSION) {
+                hasBlame = true;
+                stringColumns = STRING_COLUMNS;
+                recordWidth = RECORD_WIDTH;
+            }
+            else if (version == VERSION_WITHOUT_BLAME) {
+                hasBlame = false;
+                stringColumns = STRING_COLUMNS_WITHOUT_BLAME;
+                recordWidth = getRecordWidth(STRING_COLUMNS_WITHOUT_BLAME, 0);
+            }
+            else {
+                throw new IOException("Unsupported version of persisted FindBugs warnings: " + version);
+            }
+            size = buffer.getInt(8);
+
+            int position = 12;
+            stringOffsets = new int[buffer.getInt(position)];
+            strings = new String[stringOffsets.length];
+            position += 4;
+            for (int i = 0; i < stringOffsets.length; i++) {
+                stringOffsets[i] = position;
+                position += 4 + buffer.getInt(position);
+            }
+            records = position;
+            offsets = records + size * recordWidth;
+            ranges = offsets + (size + 1) * 4;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Decodes the bug with the specified index.
+         *
+         * @param index
+         *            the index of the bug
+         * @return the decoded bug
+         */
+        @Override
+        public Bug get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int position = records + index * recordWidth;
+            long key = buffer.getLong(position);
+            position += 8;
+            String[] values = new String[STRING_COLUMNS];
+            for (int i = 0; i < stringColumns; i++) {
+                values[i] = getString(buffer.getInt(position));
+                position += 4;
+            }
+            int flags = buffer.getInt(position);
+            int ageInDays = buffer.getInt(position + 4);
+            int reviewCount = buffer.getInt(position + 8);
+            long firstSeen = buffer.getLong(position + 12);
+            long contextHashCode = buffer.getLong(position + 20);
+            int build = buffer.getInt(position + 28);
+            int hashPosition = position + 32;
+            int columnStart = 0;
+            int columnEnd = 0;
+            if (hasBlame) {
+                columnStart = buffer.getInt(hashPosition);
+                columnEnd = buffer.getInt(hashPosition + 4);
+                hashPosition += LOCATION_WIDTH;
+            }
+
+            int firstRange = buffer.getInt(offsets + index * 4);
+            int lastRange = buffer.getInt(offsets + (index + 1) * 4);
+            int start = 0;
+            int end = 0;
+            if (lastRange > firstRange) {
+                start = buffer.getInt(ranges + firstRange * 8);
+                end = buffer.getInt(ranges + firstRange * 8 + 4);
+            }
+
+            Bug bug = new Bug(PRIORITIES[flags & PRIORITY_MASK], values[MESSAGE], Bug.intern(values[CATEGORY]),
+                    Bug.intern(values[TYPE]), start, end);
+            for (int range = firstRange + 1; range < lastRange; range++) {
+                bug.addLineRange(new LineRange(buffer.getInt(ranges + range * 8), buffer.getInt(ranges + range * 8 + 4)));
+            }
+            bug.setPlainToolTip(values[TOOLTIP]);
+            bug.setFileName(values[FILE_NAME]);
+            bug.setModuleName(Bug.intern(values[MODULE_NAME]));
+            bug.setPackageName(Bug.intern(values[PACKAGE_NAME]));
+            bug.setPathName(values[PATH_NAME]);
+            bug.setOrigin(Bug.intern(values[ORIGIN]));
+            bug.setDetailsUrlTemplate(values[DETAILS_URL]);
+            bug.setInCloud((flags & IN_CLOUD) != 0);
+            bug.setShouldBeInCloud((flags & SHOULD_BE_IN_CLOUD) != 0);
+            bug.setNotAProblem((flags & NOT_A_PROBLEM) != 0);
+            bug.setRank(flags >>> RANK_SHIFT);
+            bug.setAgeInDays(ageInDays);
+            bug.setReviewCount(reviewCount);
+            bug.setFirstSeen(firstSeen);
+            bug.setContextHashCode(contextHashCode);
+            bug.setBuild(build);
+            bug.setHash(getHash(flags >>> HASH_SHIFT & HASH_MASK, hashPosition));
+            bug.setStoredKey(key);
+            if (hasBlame) {
+                bug.setAuthorName(values[AUTHOR_NAME]);
+                bug.setAuthorEmail(values[AUTHOR_EMAIL]);
+                bug.setCommitId(values[COMMIT_ID]);
+                bug.setColumnPosition(columnStart, columnEnd);
+            }
+
+            return bug;
+        }
+
+        private HexishString getHash(final int kind, final int position) {
+            if (kind == RAW_HASH) {
+                return new HexishString(buffer.getLong(position), buffer.getLong(position + 8));
+            }
+            if (kind == STRING_HASH) {
+                return HexishString.of(getString(buffer.getInt(position)));
+            }
+            return null;
+        }
+
+        /**
+         * Returns the unique key of the bug with the specified index without decoding the bug.
+         *
+         * @param index
+         *            the index of the bug
+         * @return the key of the bug
+         */
+        public long getKey(final int index) {
+            return buffer.getLong(records + index * recordWidth);
+        }
+
+        /**
+         * Returns the priority of the bug with the specified index without decoding the bug.
+         *
+         * @param index
+         *            the index of the bug
+         * @return the priority of the bug
+         */
+        public Priority getPriority(final int index) {
+            return PRIORITIES[buffer.getInt(records + index * recordWidth + 8 + 4 * stringColumns) & PRIORITY_MASK];
+        }
+
+        /**
+         * Finds the bug with the specified key. Just the matching bug is decoded. The positions of the bugs are
+         * indexed by their keys when this method is called for the first time, subsequent calls just look up the
+         * position of the bug.
+         *
+         * @param key
+         *            the key of the bug
+         * @return the bug or <code>null</code> if there is no such bug
+         */
+        @CheckForNull
+        public Bug findBug(final long key) {
+            Integer position = getPositions().get(key);
+            if (position == null) {
+                return null;
+            }
+            return get(position);
+        }
+
+        /**
+         * Returns the positions of the bugs by their keys. Concurrent callers might create the index twice, but
+         * the index is never modified once it has been published.
+         */
+        private Map<Long, Integer> getPositions() {
+            Map<Long, Integer> index = positions;
+            if (index == null) {
+                index = new HashMap<Long, Integer>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    index.put(getKey(i), i);
+                }
+                positions = index;
+            }
+            return index;
+        }
+
+        /**
+         * Decodes the dictionary entry with the specified index. Each entry is decoded at most once, so equal
+         * strings of different bugs share the same instance.
+         */
+        private String getString(final int index) {
+            if (index == NO_STRING) {
+                return null;
+            }
+            String value = strings[index];
+            if (value == null) {
+                int position = stringOffsets[index];
+                byte[] bytes = new byte[buffer.getInt(position)];
+                ByteBuffer duplicate = buffer.duplicate();
+                duplicate.position(position + 4);
+                duplicate.get(bytes);
+                value = new String(bytes, UTF8);
+                strings[index] = value;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Dictionary of all strings of the bugs.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        private final List<String> strings = new ArrayList<String>();
+
+        int[] addAll(final Bug bug) {
+            int[] references = new int[STRING_COLUMNS];
+            references[MESSAGE] = add(bug.getPlainMessage());
+            references[CATEGORY] = add(bug.getCategory());
+            references[TYPE] = add(bug.getType());
+            references[TOOLTIP] = add(bug.getPlainToolTip());
+            references[FILE_NAME] = add(bug.getFileName());
+            references[MODULE_NAME] = add(bug.getModuleName());
+            references[PACKAGE_NAME] = add(bug.getPackageName());
+            references[PATH_NAME] = add(bug.getPathName());
+            references[ORIGIN] = add(bug.getOrigin());
+            references[DETAILS_URL] = add(bug.getDetailsUrlTemplate());
+            references[AUTHOR_NAME] = add(bug.getAuthorName());
+            references[AUTHOR_EMAIL] = add(bug.getAuthorEmail());
+            references[COMMIT_ID] = add(bug.getCommitId());
+
+            HexishString hash = bug.getHash();
+            if (hash != null) {
+                byte[] bytes = hash.getBytes();
+                if (bytes == null || bytes.length != HASH_LENGTH) {
+                    add(hash.toString());
+                }
+            }
+            return references;
+        }
+
+        int add(final String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = strings.size();
+                indexes.put(value, index);
+                strings.add(value);
+            }
+            return index;
+        }
+
+        int indexOf(final String value) {
+            return indexes.get(value);
+        }
+
+        void write(final DataOutputStream output) throws IOException {
+            output.writeInt(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(UTF8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        }
+    }
+
+    private BinaryBugFormat() {
+        // prevents instantiation
+    }
+}
@@ -3,11 +3,16 @@ package hudson.plugins.findbugs.parser;
 import javax.annotation.CheckForNull;
 import java.text.DateFormat;
 import java.util.Date;
-import java.util.Random;
+import java.util.Locale;
 
 import org.apache.commons.lang.StringUtils;
 import org.jvnet.localizer.LocaleProvider;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.basic.StringConverter;
+
 import jenkins.model.Jenkins;
 
 import hudson.plugins.analysis.util.model.AbstractAnnotation;
@@ -29,7 +34,12 @@ public class Bug extends AbstractAnnotation {
     public static final String ORIGIN = "findbugs";
 
     private static final long serialVersionUID = 5171661552905752370L;
-    private static final Random RANDOM = new Random();
+
+    /**
+     * Shares the strings with a low cardinality (type, category, origin, module, and package) of all bugs that are
+     * loaded on the controller. Strings that are not used by a bug anymore are garbage collected.
+     */
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
 
     private String tooltip = StringUtils.EMPTY;
 
@@ -48,6 +58,12 @@ public class Bug extends AbstractAnnotation {
     /** Bug rank that is a replacement for the priority. @since 4.25. */
     private int rank;
 
+    /** The key of this bug when it has been read from the {@link BinaryBugFormat}, see {@link #getKey()}. */
+    private Long storedKey;
+
+    /** The message with the cloud information, rendered for the locale of the last request. */
+    private transient volatile RenderedMessage renderedMessage;
+
     /**
      * Creates a new instance of <code>Bug</code>.
      *
@@ -156,11 +172,13 @@ public class Bug extends AbstractAnnotation {
 
     void setFirstSeen(final long firstSeen) {
         this.firstSeen = firstSeen;
+        renderedMessage = null;
     }
 
     @SuppressWarnings("javadoc")
     public void setInCloud(final boolean inCloud) {
         this.inCloud = inCloud;
+        renderedMessage = null;
     }
 
     @SuppressWarnings("javadoc")
@@ -175,6 +193,7 @@ public class Bug extends AbstractAnnotation {
 
     void setAgeInDays(final int ageInDays) {
         this.ageInDays = ageInDays;
+        renderedMessage = null;
     }
 
     @SuppressWarnings("javadoc")
@@ -184,6 +203,7 @@ public class Bug extends AbstractAnnotation {
 
     void setReviewCount(final int reviewCount) {
         this.reviewCount = reviewCount;
+        renderedMessage = null;
     }
 
     @SuppressWarnings("javadoc")
@@ -208,9 +228,34 @@ public class Bug extends AbstractAnnotation {
     @SuppressWarnings("javadoc")
     public void setDetailsUrlTemplate(@CheckForNull final String detailsUrl) {
         this.detailsUrl = detailsUrl;
+        renderedMessage = null;
     }
     // CHECKSTYLE:ON
 
+    /**
+     * Returns the unique key of this bug. A bug that has been read from the {@link BinaryBugFormat} keeps the key
+     * it has been written with, so the URLs of the source code views do not change when the bugs are reloaded.
+     *
+     * @return the unique key
+     */
+    @Override
+    public long getKey() {
+        if (storedKey == null) {
+            return super.getKey();
+        }
+        return storedKey;
+    }
+
+    /**
+     * Sets the key this bug has been written with.
+     *
+     * @param key
+     *            the key of the written bug
+     */
+    void setStoredKey(final long key) {
+        storedKey = key;
+    }
+
     /**
      * Rebuilds the priorities mapping.
      *
@@ -222,18 +267,122 @@ public class Bug extends AbstractAnnotation {
         if (instanceHash == null) {
             instanceHash = HexishString.of(String.valueOf(super.hashCode()));
         }
+        internStrings();
 
         return this;
     }
 
+    /**
+     * Replaces the module, package, and origin by the shared instances of all loaded bugs. The
+     * type and category are shared while they are read, see {@link #registerConverters(XStream)}.
+     */
+    private void internStrings() {
+        setModuleName(intern(getModuleName()));
+        setPackageName(intern(getPackageName()));
+        setOrigin(intern(getOrigin()));
+    }
+
+    /**
+     * Returns the shared instance of the specified string. Use this method only for strings with a low
+     * cardinality, e.g. types, categories, modules, or packages.
+     *
+     * @param value
+     *            the string to share, might be <code>null</code>
+     * @return the shared string
+     */
+    static String intern(@CheckForNull final String value) {
+        if (value == null) {
+            return null;
+        }
+        return STRINGS.intern(value);
+    }
+
+    /**
+     * Registers the converters that share the type and category of the bugs that are read by the
+     * specified XStream instance. {@link AbstractAnnotation} provides no setters for these
+     * properties, so they are shared before XStream assigns them.
+     *
+     * @param xstream
+     *            the XStream instance to configure
+     */
+    public static void registerConverters(final XStream xstream) {
+        InterningConverter converter = new InterningConverter();
+        xstream.registerLocalConverter(AbstractAnnotation.class, "type", converter);
+        xstream.registerLocalConverter(AbstractAnnotation.class, "category", converter);
+    }
+
+    /**
+     * Reads strings as the shared instances of all loaded bugs.
+     */
+    private static final class InterningConverter extends StringConverter {
+        @Override
+        public Object fromString(final String value) {
+            return intern(value);
+        }
+    }
+
+    /**
+     * Returns the message of this bug without the cloud information.
+     *
+     * @return the plain message
+     */
+    public String getPlainMessage() {
+        return super.getMessage();
+    }
+
+    /**
+     * Returns the tooltip of this bug without the fallback to the bug pattern description.
+     *
+     * @return the plain tooltip, might be empty
+     */
+    String getPlainToolTip() {
+        return tooltip;
+    }
+
+    void setPlainToolTip(final String tooltip) {
+        this.tooltip = tooltip;
+    }
+
+    @CheckForNull
+    String getDetailsUrlTemplate() {
+        return detailsUrl;
+    }
+
+    @CheckForNull
+    HexishString getHash() {
+        return instanceHash;
+    }
+
+    void setHash(@CheckForNull final HexishString instanceHash) {
+        this.instanceHash = instanceHash;
+        renderedMessage = null;
+    }
+
     @Override
     public String getToolTip() {
         return StringUtils.defaultIfEmpty(tooltip, FindBugsMessages.getInstance().getMessage(getType(), LocaleProvider.getLocale()));
     }
 
+    /**
+     * Returns the message of this bug. If the bug has cloud information, then the HTML of the
+     * cloud information is appended. This HTML is rendered only once per locale and cached in
+     * this bug, since the warnings table and the remote API call this method for every bug.
+     *
+     * @return the message
+     */
     @Override
     public String getMessage() {
-        return super.getMessage() + getCloudInformation();
+        if (!inCloud && detailsUrl == null) {
+            return super.getMessage();
+        }
+
+        Locale locale = LocaleProvider.getLocale();
+        RenderedMessage rendered = renderedMessage;
+        if (rendered == null || !rendered.isRenderedFor(locale)) {
+            rendered = new RenderedMessage(locale, super.getMessage() + getCloudInformation());
+            renderedMessage = rendered;
+        }
+        return rendered.getMessage();
     }
 
     private String getCloudInformation() {
@@ -245,7 +394,7 @@ public class Bug extends AbstractAnnotation {
 
         appendFirstSeenMessage(cloudMessage);
 
-        int id = RANDOM.nextInt();
+        long id = getKey();
         String onclick = "";
         if (detailsUrl != null) {
             onclick = "o=document.getElementById('fb-comments-" + id + "'); "
@@ -314,6 +463,27 @@ public class Bug extends AbstractAnnotation {
         return rootUrl + "/plugin/findbugs/icons/" + image;
     }
 
+    /**
+     * A message that has been rendered for a given locale.
+     */
+    private static final class RenderedMessage {
+        private final Locale locale;
+        private final String message;
+
+        RenderedMessage(final Locale locale, final String message) {
+            this.locale = locale;
+            this.message = message;
+        }
+
+        boolean isRenderedFor(final Locale otherLocale) {
+            return locale.equals(otherLocale);
+        }
+
+        String getMessage() {
+            return message;
+        }
+    }
+
     /**
      * Sets the unique hash code of this bug.
      *
@@ -321,6 +491,7 @@ public class Bug extends AbstractAnnotation {
      */
     public void setInstanceHash(final String instanceHash) {
         this.instanceHash = HexishString.of(instanceHash);
+        renderedMessage = null;
     }
 
     @Override
@@ -0,0 +1,364 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+
+import edu.umd.cs.findbugs.SourceLineAnnotation;
+
+import hudson.plugins.analysis.util.model.LineRange;
+
+/**
+ * Reads a native FindBugs XML file in a single pass using StAX. In contrast to the combination of
+ * {@link FindBugsParser#preParse(InputStream)} and {@code SortedBugCollection.readXML()} the file is
+ * tokenized only once: the messages, categories and all properties of a bug instance that are required
+ * to create a {@link Bug} are collected in one sweep. Each bug instance is handed over to a
+ * {@link BugInstanceHandler} as soon as its element has been read, so only one bug instance is kept in
+ * memory at a time.
+ * <p>
+ * The primary source line and the primary class of a bug instance are selected using the same rules
+ * as the FindBugs library does. Reports that contain FindBugs cloud information or bug instances
+ * without an instance hash cannot be handled without the FindBugs object model, see
+ * {@link #isSelfContained()}.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+class BugCollectionReader {
+    private static final String BUG_COLLECTION = "BugCollection";
+    private static final String PROJECT = "Project";
+    private static final String SOURCE_DIRECTORY = "SrcDir";
+    private static final String BUG_INSTANCE = "BugInstance";
+    private static final String LONG_MESSAGE = "LongMessage";
+    private static final String SOURCE_LINE = "SourceLine";
+    private static final String USER_ANNOTATION = "UserAnnotation";
+    private static final String CLOUD = "Cloud";
+    private static final String ROLE = "role";
+    private static final String CLASS_NAME = "classname";
+    private static final int UNKNOWN_LINE = -1;
+    private static final int NORMAL_PRIORITY = 2;
+
+    /** Elements that follow the bug instances: reading stops if one of these is reached. */
+    private static final Set<String> TRAILING_ELEMENTS = new HashSet<String>(
+            Arrays.asList("Errors", "FindBugsSummary", "ClassFeatures", "History"));
+    /** Attributes of a bug instance that are evaluated by the FindBugs cloud. */
+    private static final List<String> CLOUD_ATTRIBUTES = Arrays.asList(
+            "firstSeen", "reviews", "consensus", "notAProblem", "ageInDays");
+
+    private String projectName = StringUtils.EMPTY;
+    private final List<String> sourceDirectories = new ArrayList<String>();
+    private long analysisTimestamp;
+    private boolean isSelfContained = true;
+
+    /**
+     * Reads the bug instances of the specified FindBugs XML file. Each bug instance is passed to the specified
+     * handler as soon as it has been read. Reading is stopped as soon as a bug instance is found that requires
+     * the FindBugs object model.
+     *
+     * @param file
+     *            the FindBugs XML file
+     * @param handler
+     *            the handler that will receive the bug instances
+     * @return <code>true</code> if all bug instances have been read, <code>false</code> if reading has been
+     *         stopped since the file needs to be read by the FindBugs library
+     * @throws XMLStreamException
+     *             if the file contains no valid XML
+     * @see #isSelfContained()
+     */
+    public boolean read(final InputStream file, final BugInstanceHandler handler) throws XMLStreamException {
+        XMLStreamReader reader = createFactory().createXMLStreamReader(file);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (BUG_INSTANCE.equals(name)) {
+                        XmlBugInstance bug = readBugInstance(reader);
+                        if (!isSelfContained) {
+                            return false;
+                        }
+                        handler.handle(bug);
+                    }
+                    else if (SOURCE_DIRECTORY.equals(name)) {
+                        sourceDirectories.add(StringUtils.trim(reader.getElementText()));
+                    }
+                    else if (CLOUD.equals(name)) {
+                        isSelfContained = false;
+                        return false;
+                    }
+                    else if (PROJECT.equals(name)) {
+                        projectName = StringUtils.defaultString(reader.getAttributeValue(null, "projectName"));
+                    }
+                    else if (BUG_COLLECTION.equals(name)) {
+                        analysisTimestamp = NumberUtils.toLong(reader.getAttributeValue(null, "analysisTimestamp"));
+                    }
+                    else if (TRAILING_ELEMENTS.contains(name)) {
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Reads the bug instance the reader is positioned at. When this method returns, the reader is positioned
+     * at the end element of the bug instance.
+     */
+    private XmlBugInstance readBugInstance(final XMLStreamReader reader) throws XMLStreamException {
+        XmlBugInstance bug = new XmlBugInstance();
+        bug.setType(reader.getAttributeValue(null, "type"));
+        bug.setCategory(reader.getAttributeValue(null, "category"));
+        bug.setInstanceHash(reader.getAttributeValue(null, "instanceHash"));
+        bug.setPriority(NumberUtils.toInt(reader.getAttributeValue(null, "priority"), NORMAL_PRIORITY));
+        if (bug.getInstanceHash() == null || hasCloudAttributes(reader)) {
+            isSelfContained = false;
+        }
+
+        SourceLineAnnotation defaultSourceLine = null;
+        SourceLineAnnotation firstSourceLine = null;
+        MemberAnnotation primaryClass = null;
+        MemberAnnotation primaryMethod = null;
+        MemberAnnotation primaryField = null;
+        MemberAnnotation member = null;
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (depth == 1) {
+                    if (LONG_MESSAGE.equals(name)) {
+                        bug.setMessage(reader.getElementText());
+                        continue; // getElementText() already consumed the end element
+                    }
+                    if (SOURCE_LINE.equals(name)) {
+                        SourceLineAnnotation sourceLine = createSourceLine(reader);
+                        bug.addLineRange(new LineRange(sourceLine.getStartLine(), sourceLine.getEndLine()));
+                        if (!sourceLine.isUnknown()) {
+                            if (firstSourceLine == null) {
+                                firstSourceLine = sourceLine;
+                            }
+                            if (defaultSourceLine == null && reader.getAttributeValue(null, ROLE) == null) {
+                                defaultSourceLine = sourceLine;
+                            }
+                        }
+                    }
+                    else if (MemberAnnotation.isMember(name)) {
+                        member = new MemberAnnotation(name, reader.getAttributeValue(null, CLASS_NAME),
+                                reader.getAttributeValue(null, ROLE) == null);
+                    }
+                    else if (USER_ANNOTATION.equals(name)) {
+                        isSelfContained = false;
+                    }
+                }
+                else if (depth == 2 && member != null && SOURCE_LINE.equals(name)) {
+                    member.sourceLine = createSourceLine(reader);
+                }
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if (depth == 1 && member != null) {
+                    if (member.isClass()) {
+                        primaryClass = member.selectPrimary(primaryClass);
+                    }
+                    else if (member.isMethod()) {
+                        primaryMethod = member.selectPrimary(primaryMethod);
+                    }
+                    else {
+                        primaryField = member.selectPrimary(primaryField);
+                    }
+                    member = null;
+                }
+            }
+        }
+
+        if (StringUtils.isBlank(bug.getMessage())) {
+            isSelfContained = false;
+        }
+        if (primaryClass == null) {
+            isSelfContained = false;
+        }
+        else {
+            bug.setPackageName(getPackageName(StringUtils.defaultString(primaryClass.className)));
+        }
+        bug.setPrimarySourceLine(selectPrimarySourceLine(defaultSourceLine, firstSourceLine,
+                primaryMethod, primaryField, primaryClass));
+
+        return bug;
+    }
+
+    private static String getPackageName(final String className) {
+        int lastDot = className.lastIndexOf('.');
+        if (lastDot < 0) {
+            return StringUtils.EMPTY;
+        }
+        return className.substring(0, lastDot);
+    }
+
+    private boolean hasCloudAttributes(final XMLStreamReader reader) {
+        for (String attribute : CLOUD_ATTRIBUTES) {
+            if (reader.getAttributeValue(null, attribute) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Selects the primary source line using the same order as {@code BugInstance.getPrimarySourceLineAnnotation()}:
+     * top level source lines first, then the source lines of the primary method, field, or class.
+     */
+    private SourceLineAnnotation selectPrimarySourceLine(final SourceLineAnnotation defaultSourceLine,
+            final SourceLineAnnotation firstSourceLine, final MemberAnnotation... members) {
+        if (defaultSourceLine != null) {
+            return defaultSourceLine;
+        }
+        if (firstSourceLine != null) {
+            return firstSourceLine;
+        }
+        for (MemberAnnotation member : members) {
+            if (member != null) {
+                return member.getSourceLine();
+            }
+        }
+        isSelfContained = false;
+        return SourceLineAnnotation.createUnknown(StringUtils.EMPTY);
+    }
+
+    private SourceLineAnnotation createSourceLine(final XMLStreamReader reader) {
+        return new SourceLineAnnotation(
+                reader.getAttributeValue(null, CLASS_NAME),
+                StringUtils.defaultIfEmpty(reader.getAttributeValue(null, "sourcefile"),
+                        SourceLineAnnotation.UNKNOWN_SOURCE_FILE),
+                NumberUtils.toInt(reader.getAttributeValue(null, "start"), UNKNOWN_LINE),
+                NumberUtils.toInt(reader.getAttributeValue(null, "end"), UNKNOWN_LINE),
+                NumberUtils.toInt(reader.getAttributeValue(null, "startBytecode"), UNKNOWN_LINE),
+                NumberUtils.toInt(reader.getAttributeValue(null, "endBytecode"), UNKNOWN_LINE));
+    }
+
+    /**
+     * Returns the name of the project, as given in the FindBugs XML file.
+     *
+     * @return the name of the project, or an empty string if not set
+     */
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * Returns the source directories, as given in the FindBugs XML file.
+     *
+     * @return the source directories
+     */
+    public List<String> getSourceDirectories() {
+        return Collections.unmodifiableList(sourceDirectories);
+    }
+
+    /**
+     * Returns the time stamp of the analysis.
+     *
+     * @return the time stamp of the analysis
+     */
+    public long getAnalysisTimestamp() {
+        return analysisTimestamp;
+    }
+
+    /**
+     * Returns whether all bug instances of the file could be read completely. If the file contains cloud
+     * information, bug instances without instance hash, without a primary class, or without a message, then the
+     * FindBugs object model is required to obtain the same results as {@code SortedBugCollection.readXML()}.
+     *
+     * @return <code>true</code> if the read bug instances are complete, <code>false</code> if the file
+     *         needs to be read by the FindBugs library
+     */
+    public boolean isSelfContained() {
+        return isSelfContained;
+    }
+
+    /**
+     * Receives the bug instances of a FindBugs XML file while the file is read.
+     */
+    interface BugInstanceHandler {
+        /**
+         * Called for each bug instance of the file. The project properties of the reader (name, source
+         * directories) are already available when this method is called.
+         *
+         * @param bug
+         *            the bug instance
+         */
+        void handle(XmlBugInstance bug);
+    }
+
+    /**
+     * A class, method, or field annotation of a bug instance.
+     */
+    private static final class MemberAnnotation {
+        private static final String CLASS = "Class";
+        private static final String METHOD = "Method";
+        private static final String FIELD = "Field";
+
+        private final String kind;
+        private final String className;
+        private final boolean hasDefaultRole;
+        private SourceLineAnnotation sourceLine;
+
+        static boolean isMember(final String name) {
+            return CLASS.equals(name) || METHOD.equals(name) || FIELD.equals(name);
+        }
+
+        MemberAnnotation(final String kind, final String className, final boolean hasDefaultRole) {
+            this.kind = kind;
+            this.className = className;
+            this.hasDefaultRole = hasDefaultRole;
+        }
+
+        boolean isClass() {
+            return CLASS.equals(kind);
+        }
+
+        boolean isMethod() {
+            return METHOD.equals(kind);
+        }
+
+        /**
+         * Returns the primary annotation of the given candidates: the first annotation with the default role
+         * or the first annotation if there is no such annotation.
+         */
+        MemberAnnotation selectPrimary(final MemberAnnotation current) {
+            if (current == null || (hasDefaultRole && !current.hasDefaultRole)) {
+                return this;
+            }
+            return current;
+        }
+
+        SourceLineAnnotation getSourceLine() {
+            if (sourceLine == null) {
+                return SourceLineAnnotation.createUnknown(className);
+            }
+            return sourceLine;
+        }
+    }
+}
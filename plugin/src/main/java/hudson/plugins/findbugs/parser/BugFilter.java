@@ -0,0 +1,110 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Filters FindBugs warnings by rank, priority, category, and bug type. The filter is evaluated by the
+ * {@link FindBugsParser} before a {@link Bug} is created, so warnings that are filtered out never reach the
+ * build result.
+ *
+ * @author Ulli Hafner
+ */
+public class BugFilter implements Serializable {
+    private static final long serialVersionUID = 2722373958893406375L;
+
+    /** Filter that accepts all warnings. */
+    public static final BugFilter ALL = new BugFilter(0, null, null, null, null, null);
+
+    private final int maximumRank;
+    private final Priority minimumPriority;
+    private final Set<String> includeCategories;
+    private final Set<String> excludeCategories;
+    private final Set<String> includeTypes;
+    private final Set<String> excludeTypes;
+
+    /**
+     * Creates a new instance of {@link BugFilter}.
+     *
+     * @param maximumRank
+     *            the maximum rank of the warnings to include (1 is the most severe), values less than 1 include
+     *            all ranks
+     * @param minimumPriority
+     *            the minimum priority of the warnings to include (<code>high</code>, <code>normal</code>, or
+     *            <code>low</code>), an empty value includes all priorities
+     * @param includeCategories
+     *            comma separated list of categories to include, an empty value includes all categories
+     * @param excludeCategories
+     *            comma separated list of categories to exclude
+     * @param includeTypes
+     *            comma separated list of bug types to include, an empty value includes all bug types
+     * @param excludeTypes
+     *            comma separated list of bug types to exclude
+     */
+    public BugFilter(final int maximumRank, final String minimumPriority, final String includeCategories,
+            final String excludeCategories, final String includeTypes, final String excludeTypes) {
+        this.maximumRank = maximumRank;
+        this.minimumPriority = toPriority(minimumPriority);
+        this.includeCategories = split(includeCategories);
+        this.excludeCategories = split(excludeCategories);
+        this.includeTypes = split(includeTypes);
+        this.excludeTypes = split(excludeTypes);
+    }
+
+    private static Priority toPriority(final String priority) {
+        for (Priority value : Priority.values()) {
+            if (value.name().equalsIgnoreCase(StringUtils.trim(priority))) {
+                return value;
+            }
+        }
+        return Priority.LOW;
+    }
+
+    private static Set<String> split(final String values) {
+        Set<String> elements = new HashSet<String>();
+        if (StringUtils.isNotBlank(values)) {
+            for (String value : StringUtils.split(values, ',')) {
+                if (StringUtils.isNotBlank(value)) {
+                    elements.add(StringUtils.upperCase(StringUtils.trim(value)));
+                }
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Returns whether the specified warning should be part of the report.
+     *
+     * @param priority
+     *            the priority of the warning
+     * @param rank
+     *            the FindBugs rank of the warning
+     * @param category
+     *            the category of the warning
+     * @param type
+     *            the bug type of the warning
+     * @return <code>true</code> if the warning should be reported, <code>false</code> if it should be skipped
+     */
+    public boolean accepts(final Priority priority, final int rank, final String category, final String type) {
+        if (maximumRank > 0 && rank > maximumRank) {
+            return false;
+        }
+        if (priority.compareTo(minimumPriority) > 0) {
+            return false;
+        }
+        return matches(includeCategories, excludeCategories, category) && matches(includeTypes, excludeTypes, type);
+    }
+
+    private boolean matches(final Set<String> includes, final Set<String> excludes, final String value) {
+        String key = StringUtils.upperCase(value);
+        if (!includes.isEmpty() && !includes.contains(key)) {
+            return false;
+        }
+        return !excludes.contains(key);
+    }
+}
@@ -0,0 +1,91 @@
+package hudson.plugins.findbugs.parser;
+
+import edu.umd.cs.findbugs.BugInstance;
+import edu.umd.cs.findbugs.SortedBugCollection;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import edu.umd.cs.findbugs.cloud.Cloud;
+
+/**
+ * The FindBugs cloud information of a bug collection. The state of the cloud is resolved only once for the whole
+ * collection, afterwards each warning is enriched with its cloud specific properties. Reports without any cloud
+ * data use {@link #NONE} which does not touch the FindBugs cloud at all.
+ *
+ * @author Ulli Hafner
+ */
+abstract class CloudInformation {
+    private static final String CLOUD_DETAILS_URL_PROPERTY = "detailsUrl";
+    private static final int DAY_IN_MSEC = 1000 * 60 * 60 * 24;
+
+    /** Cloud information of reports that do not contain any cloud data: warnings are not enriched. */
+    static final CloudInformation NONE = new CloudInformation() {
+        @Override
+        boolean apply(final BugInstance warning, final Bug bug) {
+            return false;
+        }
+    };
+
+    /**
+     * Resolves the cloud state of the specified collection. Waits until the issue data of the cloud has been
+     * downloaded.
+     *
+     * @param collection
+     *            the warnings collection
+     * @param hasCloudData
+     *            determines whether the FindBugs XML file of the collection contains cloud data
+     * @return the cloud information of the collection
+     */
+    static CloudInformation create(final SortedBugCollection collection, final boolean hasCloudData) {
+        if (!hasCloudData && collection.getXmlCloudDetails().isEmpty()) {
+            return NONE;
+        }
+        return new CollectionCloudInformation(collection);
+    }
+
+    /**
+     * Sets the cloud information of the specified bug.
+     *
+     * @param warning
+     *            the warning
+     * @param bug
+     *            the bug
+     * @return true, if this warning is not a bug and should be ignored
+     */
+    abstract boolean apply(BugInstance warning, Bug bug);
+
+    /**
+     * Cloud information that is obtained from the cloud of a bug collection.
+     */
+    private static final class CollectionCloudInformation extends CloudInformation {
+        private final Cloud cloud;
+        private final boolean isOnline;
+        private final String detailsUrl;
+        private final long analysisTimestamp;
+
+        @SuppressFBWarnings("NP")
+        CollectionCloudInformation(final SortedBugCollection collection) {
+            super();
+
+            cloud = collection.getCloud();
+            cloud.waitUntilIssueDataDownloaded();
+
+            isOnline = cloud.isOnlineCloud();
+            detailsUrl = collection.getXmlCloudDetails().get(CLOUD_DETAILS_URL_PROPERTY);
+            analysisTimestamp = collection.getAnalysisTimestamp();
+        }
+
+        @Override
+        boolean apply(final BugInstance warning, final Bug bug) {
+            bug.setShouldBeInCloud(isOnline);
+            bug.setDetailsUrlTemplate(detailsUrl);
+
+            long firstSeen = cloud.getFirstSeen(warning);
+            bug.setInCloud(cloud.isInCloud(warning));
+            bug.setFirstSeen(firstSeen);
+            int ageInDays = (int)((analysisTimestamp - firstSeen) / DAY_IN_MSEC);
+            bug.setAgeInDays(ageInDays);
+            bug.setReviewCount(cloud.getNumberReviewers(warning));
+
+            return cloud.overallClassificationIsNotAProblem(warning);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import hudson.plugins.analysis.core.ParserResult;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * A {@link ParserResult} that is encoded to be transferred from an agent to the controller. The
+ * bugs are not serialized one by one: they are encoded in the {@link BinaryBugFormat} so each
+ * string is transferred only once, and the encoded bugs are compressed. Annotations that are not
+ * bugs are serialized as usual. If the bugs have been stored by the agent already, then the bugs
+ * can be omitted: in this case only the modules, errors, and log messages are transferred. The
+ * errors keep the modules they belong to, see {@link ErrorMessage}.
+ *
+ * @author Ulli Hafner
+ */
+public final class EncodedParserResult implements Serializable {
+    private static final long serialVersionUID = 4632937462845011203L;
+
+    private final byte[] bugs;
+    private final int numberOfBugs;
+    private final boolean containsBugs;
+    private final List<FileAnnotation> otherAnnotations = new ArrayList<FileAnnotation>();
+    private final List<String> modules = new ArrayList<String>();
+    private final List<ErrorMessage> errors = new ArrayList<ErrorMessage>();
+    private final String log;
+
+    /**
+     * Encodes the specified result.
+     *
+     * @param result
+     *            the result to encode
+     * @throws IOException
+     *             if the bugs could not be encoded
+     */
+    public EncodedParserResult(final ParserResult result) throws IOException {
+        this(result, true);
+    }
+
+    /**
+     * Encodes the specified result.
+     *
+     * @param result
+     *            the result to encode
+     * @param containsBugs
+     *            determines whether the bugs should be encoded, if <code>false</code> then the bugs
+     *            must be provided when the result is decoded
+     * @throws IOException
+     *             if the bugs could not be encoded
+     * @see #decode(Collection)
+     */
+    public EncodedParserResult(final ParserResult result, final boolean containsBugs) throws IOException {
+        this(result, toErrorMessages(result.getErrorMessages()), containsBugs);
+    }
+
+    /**
+     * Encodes the specified result.
+     *
+     * @param result
+     *            the result to encode
+     * @param errors
+     *            the error messages of the result with their modules
+     * @param containsBugs
+     *            determines whether the bugs should be encoded, if <code>false</code> then the bugs
+     *            must be provided when the result is decoded
+     * @throws IOException
+     *             if the bugs could not be encoded
+     * @see FindBugsFilesParser#parse(java.io.File, List)
+     */
+    public EncodedParserResult(final ParserResult result, final List<ErrorMessage> errors,
+            final boolean containsBugs) throws IOException {
+        this.containsBugs = containsBugs;
+
+        List<FileAnnotation> encoded = new ArrayList<FileAnnotation>();
+        for (FileAnnotation annotation : result.getAnnotations()) {
+            if (annotation instanceof Bug) {
+                encoded.add(annotation);
+            }
+            else {
+                otherAnnotations.add(annotation);
+            }
+        }
+        numberOfBugs = encoded.size();
+        modules.addAll(result.getModules());
+        this.errors.addAll(errors);
+        if (containsBugs) {
+            bugs = encode(encoded);
+            log = result.getLogMessages() + "Encoded " + numberOfBugs + " warnings into " + bugs.length
+                    + " bytes for the transfer to the controller.\n";
+        }
+        else {
+            bugs = new byte[0];
+            log = result.getLogMessages();
+        }
+    }
+
+    private static List<ErrorMessage> toErrorMessages(final Collection<String> messages) {
+        List<ErrorMessage> errors = new ArrayList<ErrorMessage>();
+        for (String message : messages) {
+            errors.add(new ErrorMessage(message));
+        }
+        return errors;
+    }
+
+    private static byte[] encode(final Collection<FileAnnotation> annotations) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        OutputStream stream = new GZIPOutputStream(content);
+        try {
+            BinaryBugFormat.write(annotations, stream);
+        }
+        finally {
+            stream.close();
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Returns whether the bugs have been encoded.
+     *
+     * @return <code>true</code> if the bugs have been encoded, <code>false</code> if the bugs
+     *         must be provided when the result is decoded
+     * @see #decode(Collection)
+     */
+    public boolean containsBugs() {
+        return containsBugs;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded bugs.
+     *
+     * @return the size of the encoded bugs
+     */
+    public int getEncodedSize() {
+        return bugs.length;
+    }
+
+    /**
+     * Decodes the result. The file names of the annotations have been resolved in the workspace
+     * of the agent already, so the decoded result does not access the workspace again.
+     *
+     * @return the decoded result
+     * @throws IOException
+     *             if the bugs could not be decoded
+     */
+    public ParserResult decode() throws IOException {
+        if (!containsBugs) {
+            throw new IllegalStateException("The bugs have not been encoded");
+        }
+        if (numberOfBugs > 0) {
+            return decode(decodeBugs());
+        }
+        return decode(Collections.<FileAnnotation>emptyList());
+    }
+
+    /**
+     * Decodes the result using the specified bugs. Use this method if the bugs have not been
+     * encoded but stored by the agent. The decoded result has no workspace: the file names of the
+     * bugs are absolute paths that have been resolved by the agent already, so they are not
+     * expanded again on the controller.
+     *
+     * @param storedBugs
+     *            the bugs of the result
+     * @return the decoded result
+     */
+    public ParserResult decode(final Collection<FileAnnotation> storedBugs) {
+        ParserResult result = new ParserResult();
+        result.addModules(modules);
+        for (ErrorMessage error : errors) {
+            error.addTo(result);
+        }
+        result.addAnnotations(storedBugs);
+        result.addAnnotations(otherAnnotations);
+        result.setLog(log);
+        return result;
+    }
+
+    /**
+     * Returns the number of bugs of the encoded result.
+     *
+     * @return the number of bugs
+     */
+    public int getNumberOfBugs() {
+        return numberOfBugs;
+    }
+
+    private List<FileAnnotation> decodeBugs() throws IOException {
+        InputStream stream = new GZIPInputStream(new ByteArrayInputStream(bugs));
+        try {
+            return BinaryBugFormat.read(IOUtils.toByteArray(stream));
+        }
+        finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.Serializable;
+
+import javax.annotation.CheckForNull;
+
+import hudson.plugins.analysis.core.ParserResult;
+
+/**
+ * An error message of a {@link ParserResult} together with the module the message belongs to.
+ * {@link ParserResult} provides the messages only, so the modules are kept in this class when a
+ * result is transferred to the controller.
+ *
+ * @author Ulli Hafner
+ */
+public final class ErrorMessage implements Serializable {
+    private static final long serialVersionUID = -5307925816313465120L;
+
+    private final String module;
+    private final String message;
+
+    /**
+     * Creates a new instance of {@link ErrorMessage} that does not belong to a module.
+     *
+     * @param message
+     *            the error message
+     */
+    public ErrorMessage(final String message) {
+        this(null, message);
+    }
+
+    /**
+     * Creates a new instance of {@link ErrorMessage}.
+     *
+     * @param module
+     *            the module of the error, might be <code>null</code>
+     * @param message
+     *            the error message
+     */
+    public ErrorMessage(@CheckForNull final String module, final String message) {
+        this.module = module;
+        this.message = message;
+    }
+
+    /**
+     * Returns the module of this error.
+     *
+     * @return the module or <code>null</code> if the error does not belong to a module
+     */
+    @CheckForNull
+    public String getModule() {
+        return module;
+    }
+
+    /**
+     * Returns the message of this error.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Adds this error to the specified result.
+     *
+     * @param result
+     *            the result to add the error to
+     */
+    public void addTo(final ParserResult result) {
+        if (module == null) {
+            result.addErrorMessage(message);
+        }
+        else {
+            result.addErrorMessage(module, message);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return module == null ? message : module + ": " + message;
+    }
+}
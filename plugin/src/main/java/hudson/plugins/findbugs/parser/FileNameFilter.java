@@ -0,0 +1,72 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Filters warnings by the name of their source file. All include patterns and all exclude patterns are compiled
+ * into a single regular expression each, so every file name is matched only twice, independent of the number of
+ * patterns. A file is accepted if it matches one of the include patterns (or no include pattern is defined) and
+ * none of the exclude patterns.
+ *
+ * @author Ulli Hafner
+ */
+class FileNameFilter implements Serializable {
+    private static final long serialVersionUID = -6129209722366420466L;
+
+    /** Combined include patterns, <code>null</code> if all files should be included. */
+    private final Pattern include;
+    /** Combined exclude patterns, <code>null</code> if no files should be excluded. */
+    private final Pattern exclude;
+
+    /**
+     * Creates a new instance of {@link FileNameFilter}.
+     *
+     * @param includePattern
+     *            comma separated list of RegEx patterns of files to include in the report
+     * @param excludePattern
+     *            comma separated list of RegEx patterns of files to exclude from the report
+     */
+    FileNameFilter(final String includePattern, final String excludePattern) {
+        include = compile(includePattern);
+        exclude = compile(excludePattern);
+    }
+
+    /**
+     * Compiles the comma separated list of patterns into a single alternation.
+     *
+     * @param pattern
+     *            String of RegEx patterns
+     * @return the compiled pattern or <code>null</code> if no pattern is defined
+     */
+    private static Pattern compile(final String pattern) {
+        if (StringUtils.isBlank(pattern)) {
+            return null;
+        }
+        List<String> alternatives = new ArrayList<String>();
+        for (String singlePattern : StringUtils.split(pattern, ',')) {
+            String trimmed = StringUtils.trim(singlePattern);
+            String directoriesReplaced = StringUtils.replace(trimmed, "**", "*"); // NOCHECKSTYLE
+            alternatives.add("(?:" + StringUtils.replace(directoriesReplaced, "*", ".*") + ")"); // NOCHECKSTYLE
+        }
+        return Pattern.compile(StringUtils.join(alternatives, '|'));
+    }
+
+    /**
+     * Returns whether warnings in the specified file should be part of the report.
+     *
+     * @param fileName
+     *            the name of the source file
+     * @return <code>true</code> if the file is included and not excluded, <code>false</code> otherwise
+     */
+    public boolean accepts(final String fileName) {
+        if (include != null && !include.matcher(fileName).matches()) {
+            return false;
+        }
+        return exclude == null || !exclude.matcher(fileName).matches();
+    }
+}
@@ -0,0 +1,312 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.exception.ExceptionUtils;
+
+import jenkins.MasterToSlaveFileCallable;
+
+import hudson.FilePath;
+import hudson.plugins.analysis.core.FilesParser;
+import hudson.plugins.analysis.core.ParserResult;
+import hudson.plugins.analysis.util.FileFinder;
+import hudson.plugins.analysis.util.ModuleDetector;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.findbugs.Messages;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Parses the FindBugs XML files that match an Ant file-set pattern. In contrast to {@link FilesParser} the
+ * files can be parsed in parallel using a bounded number of worker threads. The annotations of the individual
+ * files are merged in the order of the file names, so the result does not depend on the order in which the
+ * workers finish.
+ *
+ * @author Ulli Hafner
+ */
+public class FindBugsFilesParser extends MasterToSlaveFileCallable<ParserResult> {
+    private static final long serialVersionUID = -2640282587186393296L;
+
+    /** Ant file-set pattern of files to work with. */
+    private final String filePattern;
+    /** The parser to be used for each file. */
+    private final FindBugsParser parser;
+    /** Determines whether module names should be derived from Maven POM or Ant build files. */
+    private final boolean shouldDetectModules;
+    /** Determines whether this build uses maven. */
+    private final boolean isMavenBuild;
+    /** The predefined module name, might be empty. */
+    private final String moduleName;
+    /** The maximum number of files that are parsed at the same time. */
+    private final int numberOfThreads;
+
+    /**
+     * Creates a new instance of {@link FindBugsFilesParser}.
+     *
+     * @param filePattern
+     *            ant file-set pattern to scan for files to parse
+     * @param parser
+     *            the parser to apply on the found files
+     * @param shouldDetectModules
+     *            determines whether modules should be detected from pom.xml or build.xml files
+     * @param isMavenBuild
+     *            determines whether this build uses maven
+     * @param numberOfThreads
+     *            the maximum number of files that are parsed at the same time, values less than 2 parse the
+     *            files one after another
+     */
+    public FindBugsFilesParser(final String filePattern, final FindBugsParser parser,
+            final boolean shouldDetectModules, final boolean isMavenBuild, final int numberOfThreads) {
+        this.filePattern = filePattern;
+        this.parser = parser;
+        this.shouldDetectModules = shouldDetectModules;
+        this.isMavenBuild = isMavenBuild;
+        this.numberOfThreads = numberOfThreads;
+        moduleName = StringUtils.EMPTY;
+    }
+
+    /**
+     * Creates a new instance of {@link FindBugsFilesParser}. Assumes that this is a Maven build with the
+     * specified module name.
+     *
+     * @param filePattern
+     *            ant file-set pattern to scan for files to parse
+     * @param parser
+     *            the parser to apply on the found files
+     * @param moduleName
+     *            the name of the module to use for all files
+     * @param numberOfThreads
+     *            the maximum number of files that are parsed at the same time, values less than 2 parse the
+     *            files one after another
+     */
+    public FindBugsFilesParser(final String filePattern, final FindBugsParser parser, final String moduleName,
+            final int numberOfThreads) {
+        this.filePattern = filePattern;
+        this.parser = parser;
+        this.moduleName = moduleName;
+        this.numberOfThreads = numberOfThreads;
+        shouldDetectModules = false;
+        isMavenBuild = true;
+    }
+
+    @Override
+    public ParserResult invoke(final File workspace, final VirtualChannel channel) throws IOException,
+            InterruptedException {
+        return parse(workspace, new ArrayList<ErrorMessage>());
+    }
+
+    /**
+     * Parses the FindBugs files in the specified workspace. The error messages are added to the
+     * result and to the specified list, which keeps the module of each message.
+     *
+     * @param workspace
+     *            the workspace with the FindBugs files
+     * @param errors
+     *            the list to add the error messages to
+     * @return the parsed result
+     * @throws IOException
+     *             if the files could not be found
+     * @throws InterruptedException
+     *             if the user canceled the build
+     */
+    public ParserResult parse(final File workspace, final List<ErrorMessage> errors) throws IOException,
+            InterruptedException {
+        ParserResult result = new ParserResult(new FilePath(workspace));
+        StringBuilder log = new StringBuilder();
+
+        String[] fileNames = new FileFinder(filePattern).find(workspace);
+        if (fileNames.length == 0) {
+            if (!isMavenBuild) {
+                ErrorMessage error = new ErrorMessage(Messages.FindBugs_FindBugsCollector_Error_NoFiles(filePattern));
+                error.addTo(result);
+                errors.add(error);
+            }
+        }
+        else {
+            Arrays.sort(fileNames);
+            log(log, "Parsing " + fileNames.length + " files in " + workspace.getAbsolutePath());
+            List<FileResult> results = parseFiles(workspace, fileNames);
+            for (FileResult fileResult : results) {
+                fileResult.addTo(result, log, errors);
+            }
+            log(log, parser.getSourceFileCacheStatistics());
+            log(log, parser.getStringPoolStatistics());
+        }
+
+        result.setLog(log.toString());
+        return result;
+    }
+
+    /**
+     * Returns a callable that parses the files like this parser, but returns the result encoded
+     * as {@link EncodedParserResult}. Use this callable if the result is transferred from an agent
+     * to the controller.
+     *
+     * @return the callable
+     */
+    public MasterToSlaveFileCallable<EncodedParserResult> encoded() {
+        return new EncodingFilesParser(this);
+    }
+
+    private List<FileResult> parseFiles(final File workspace, final String[] fileNames) throws InterruptedException {
+        ModuleDetector detector = new ModuleDetector(workspace);
+        List<FileParserTask> tasks = new ArrayList<FileParserTask>();
+        for (String fileName : fileNames) {
+            File file = new File(workspace, fileName);
+            tasks.add(new FileParserTask(file, getModuleName(detector, file)));
+        }
+
+        int poolSize = Math.min(numberOfThreads, tasks.size());
+        if (poolSize < 2) {
+            List<FileResult> results = new ArrayList<FileResult>();
+            for (FileParserTask task : tasks) {
+                results.add(task.call());
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<FileResult> results = new ArrayList<FileResult>();
+            for (Future<FileResult> future : executor.invokeAll(tasks)) {
+                results.add(getResult(future));
+            }
+            return results;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FileResult getResult(final Future<FileResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException(cause); // FileParserTask does not throw checked exceptions
+        }
+    }
+
+    private String getModuleName(final ModuleDetector detector, final File file) {
+        if (shouldDetectModules) {
+            return detector.guessModuleName(file.getAbsolutePath());
+        }
+        return moduleName;
+    }
+
+    private static void log(final StringBuilder log, final String message) {
+        log.append(message).append('\n');
+    }
+
+    /**
+     * Parses a single FindBugs file.
+     */
+    private class FileParserTask implements Callable<FileResult> {
+        private final File file;
+        private final String module;
+
+        FileParserTask(final File file, final String module) {
+            this.file = file;
+            this.module = module;
+        }
+
+        @Override
+        public FileResult call() {
+            if (!file.canRead()) {
+                return FileResult.failure(module, Messages.FindBugs_FindBugsCollector_Error_NoPermission(file));
+            }
+            if (file.length() <= 0) {
+                return FileResult.failure(module, Messages.FindBugs_FindBugsCollector_Error_EmptyFile(file));
+            }
+            try {
+                return FileResult.success(file, module, parser.parse(file, module));
+            }
+            catch (InvocationTargetException exception) {
+                return FileResult.failure(module, Messages.FindBugs_FindBugsCollector_Error_Exception(file)
+                        + "\n\n" + ExceptionUtils.getStackTrace(exception.getCause()));
+            }
+        }
+    }
+
+    /**
+     * The result of parsing a single file: either the found annotations or an error message.
+     */
+    private static final class FileResult {
+        private final String module;
+        private final Collection<FileAnnotation> annotations;
+        private final String message;
+        private final boolean isError;
+
+        static FileResult success(final File file, final String module, final Collection<FileAnnotation> annotations) {
+            return new FileResult(module, annotations, "Successfully parsed file " + file + " of module "
+                    + module + " with " + annotations.size() + " warnings.", false);
+        }
+
+        static FileResult failure(final String module, final String message) {
+            return new FileResult(module, Collections.<FileAnnotation>emptyList(), message, true);
+        }
+
+        private FileResult(final String module, final Collection<FileAnnotation> annotations,
+                final String message, final boolean isError) {
+            this.module = module;
+            this.annotations = annotations;
+            this.message = message;
+            this.isError = isError;
+        }
+
+        void addTo(final ParserResult result, final StringBuilder log, final List<ErrorMessage> errors) {
+            if (isError) {
+                ErrorMessage error = new ErrorMessage(module, message);
+                error.addTo(result);
+                errors.add(error);
+            }
+            else {
+                result.addModule(module);
+                result.addAnnotations(annotations);
+            }
+            log(log, message);
+        }
+    }
+
+    /**
+     * Encodes the result of a {@link FindBugsFilesParser} before it is returned to the controller.
+     */
+    private static final class EncodingFilesParser extends MasterToSlaveFileCallable<EncodedParserResult> {
+        private static final long serialVersionUID = 7920415587413342190L;
+
+        private final FindBugsFilesParser parser;
+
+        EncodingFilesParser(final FindBugsFilesParser parser) {
+            super();
+
+            this.parser = parser;
+        }
+
+        @Override
+        public EncodedParserResult invoke(final File workspace, final VirtualChannel channel) throws IOException,
+                InterruptedException {
+            List<ErrorMessage> errors = new ArrayList<ErrorMessage>();
+            ParserResult result = parser.parse(workspace, errors);
+            return new EncodedParserResult(result, errors, true);
+        }
+    }
+}
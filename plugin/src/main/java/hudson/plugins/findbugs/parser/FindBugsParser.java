@@ -11,10 +11,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -22,28 +23,24 @@ import org.dom4j.DocumentException;
 import org.jvnet.localizer.LocaleProvider;
 import org.xml.sax.SAXException;
 
-import com.google.common.collect.Sets;
-
 import edu.umd.cs.findbugs.BugAnnotation;
 import edu.umd.cs.findbugs.BugInstance;
 import edu.umd.cs.findbugs.Project;
 import edu.umd.cs.findbugs.SortedBugCollection;
 import edu.umd.cs.findbugs.SourceLineAnnotation;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import edu.umd.cs.findbugs.ba.SourceFile;
 import edu.umd.cs.findbugs.ba.SourceFinder;
-import edu.umd.cs.findbugs.cloud.Cloud;
 
 import hudson.plugins.analysis.core.AnnotationParser;
 import hudson.plugins.analysis.util.SecureDigester;
-import hudson.plugins.analysis.util.TreeStringBuilder;
 import hudson.plugins.analysis.util.model.FileAnnotation;
 import hudson.plugins.analysis.util.model.LineRange;
 import hudson.plugins.analysis.util.model.Priority;
 import hudson.plugins.findbugs.FindBugsMessages;
 
 /**
- * A parser for the native FindBugs XML files (ant task, batch file or maven-findbugs-plugin >= 1.2).
+ * A parser for the native FindBugs XML files (ant task, batch file or maven-findbugs-plugin >= 1.2). The parser
+ * is thread safe: several files can be parsed concurrently using the same instance.
  *
  * @author Ulli Hafner
  */
@@ -54,10 +51,8 @@ public class FindBugsParser implements AnnotationParser {
 
     private static final String DOT = ".";
     private static final String SLASH = "/";
-    private static final String CLOUD_DETAILS_URL_PROPERTY = "detailsUrl";
     private static final String EMPTY_STRING = "";
 
-    private static final int DAY_IN_MSEC = 1000 * 60 * 60 * 24;
     private static final int HIGH_PRIORITY_LOWEST_RANK = 4;
     private static final int NORMAL_PRIORITY_LOWEST_RANK = 9;
 
@@ -68,10 +63,25 @@ public class FindBugsParser implements AnnotationParser {
     /** Determines whether to use the rank when evaluation the priority. @since 4.26 */
     private final boolean isRankActivated;
 
-    private final Set<Pattern> excludePatterns = Sets.newHashSet();
-    private final Set<Pattern> includePatterns = Sets.newHashSet();
+    /** Include and exclude patterns of the source files, evaluated before a bug is created. */
+    private final FileNameFilter fileNameFilter;
+
+    /** Filters warnings by rank, priority, category, and bug type before a bug is created. */
+    private BugFilter bugFilter = BugFilter.ALL;
+
+    private final AtomicBoolean isFirstError = new AtomicBoolean(true);
+
+    /** Determines whether to read the FindBugs XML files in a single pass (without the FindBugs object model). */
+    private boolean isSinglePassActivated;
 
-    private boolean isFirstError = true;
+    /** Determines whether to index the source folders once rather than searching them for each source file. */
+    private boolean isSourceIndexActivated;
+
+    /** Resolved source files of all FindBugs XML files parsed by this parser. */
+    private final SourceFileCache sourceFileCache = new SourceFileCache();
+
+    /** Shared strings of the bugs of all FindBugs XML files parsed by this parser. */
+    private final StringPool stringPool = new StringPool();
 
     /**
      * Creates a new instance of {@link FindBugsParser}.
@@ -113,29 +123,86 @@ public class FindBugsParser implements AnnotationParser {
             final String excludePattern, final String includePattern) {
         mavenSources.addAll(sourceFolders);
         this.isRankActivated = isRankActivated;
-        addPatterns(includePatterns, includePattern);
-        addPatterns(excludePatterns, excludePattern);
+        fileNameFilter = new FileNameFilter(includePattern, excludePattern);
     }
 
     /**
-     * Add RegEx patterns to include/exclude in the report.
+     * Determines whether to read the FindBugs XML files in a single pass. If activated, each file is read only
+     * once using a StAX parser and each bug is created directly from its XML element as soon as the element has
+     * been read, i.e. no {@link SortedBugCollection} is built in memory. Files that require the
+     * FindBugs object model (e.g., files with FindBugs cloud information or files without instance hashes) are
+     * still read using the FindBugs library.
      *
-     * @param patterns
-     *            RegEx patterns
-     * @param pattern
-     *            String of RegEx patterns
+     * @param isSinglePassActivated
+     *            <code>true</code> to read the files in a single pass, <code>false</code> to use the FindBugs
+     *            library
      */
-    private void addPatterns(final Set<Pattern> patterns, final String pattern) {
-        if (StringUtils.isNotBlank(pattern)) {
-            String[] split = StringUtils.split(pattern, ',');
-            for (String singlePattern : split) {
-                String trimmed = StringUtils.trim(singlePattern);
-                String directoriesReplaced = StringUtils.replace(trimmed, "**", "*"); // NOCHECKSTYLE
-                patterns.add(Pattern.compile(StringUtils.replace(directoriesReplaced, "*", ".*"))); // NOCHECKSTYLE
-            }
-        }
+    public void setSinglePassActivated(final boolean isSinglePassActivated) {
+        this.isSinglePassActivated = isSinglePassActivated;
+    }
+
+    /**
+     * Determines whether to build an index of the source folders. If activated, each list of source folders is
+     * walked only once and the source files of the warnings are resolved by a lookup in this index. Otherwise,
+     * the source folders are searched by the FindBugs library for each source file that is not yet cached.
+     *
+     * @param isSourceIndexActivated
+     *            <code>true</code> to index the source folders, <code>false</code> to search the source folders
+     *            for each source file
+     */
+    public void setSourceIndexActivated(final boolean isSourceIndexActivated) {
+        this.isSourceIndexActivated = isSourceIndexActivated;
+    }
+
+    /**
+     * Sets the filter that is applied to each warning before the corresponding {@link Bug} is created. Warnings
+     * that are not accepted by the filter are skipped.
+     *
+     * @param bugFilter
+     *            the filter to apply
+     */
+    public void setBugFilter(final BugFilter bugFilter) {
+        this.bugFilter = bugFilter;
     }
 
+    /**
+     * Returns the statistics of the source file cache. The cache is shared by all files that are parsed with this
+     * parser.
+     *
+     * @return the number of cache hits, misses, and unresolved files
+     */
+    public String getSourceFileCacheStatistics() {
+        return sourceFileCache.toString();
+    }
+
+    /**
+     * Returns the statistics of the string pool. The pool is shared by all files that are parsed with this
+     * parser.
+     *
+     * @return the number of shared strings and the estimated number of saved bytes
+     */
+    public String getStringPoolStatistics() {
+        return stringPool.toString();
+    }
+
+    /**
+     * Creates a bug using the shared strings of the string pool.
+     */
+    private Bug createBug(final Priority priority, final String message, final String category, final String type,
+            final int start, final int end) {
+        return new Bug(priority, stringPool.intern(message), stringPool.intern(category), stringPool.intern(type),
+                start, end);
+    }
+
+    /**
+     * Sets the file, package, and module name of the specified bug using the shared strings of the string pool.
+     * The file name is shared when the bug is complete, see {@link StringPool#internFileName}.
+     */
+    private void setLocation(final Bug bug, final String fileName, final String packageName, final String moduleName) {
+        bug.setFileName(fileName);
+        bug.setPackageName(stringPool.intern(packageName));
+        bug.setModuleName(stringPool.intern(moduleName));
+    }
 
     @Override
     public Collection<FileAnnotation> parse(final File file, final String moduleName) throws InvocationTargetException {
@@ -189,21 +256,69 @@ public class FindBugsParser implements AnnotationParser {
 
     Collection<FileAnnotation> parse(final InputStreamProvider file, final Collection<String> sources,
             final String moduleName) throws IOException, DocumentException, SAXException {
+        if (isSinglePassActivated) {
+            Collection<FileAnnotation> annotations = parseSinglePass(file, sources, moduleName);
+            if (annotations != null) {
+                return annotations;
+            }
+        }
+
         InputStream input = null;
         try {
             input = file.getInputStream();
             Map<String, String> hashToMessageMapping = new HashMap<String, String>();
             Map<String, String> categories = new HashMap<String, String>();
+            boolean hasCloudData = false;
             for (XmlBugInstance bug : preParse(input)) {
                 hashToMessageMapping.put(bug.getInstanceHash(), bug.getMessage());
                 categories.put(bug.getType(), bug.getCategory());
+                hasCloudData |= bug.hasCloudData();
             }
             IOUtils.closeQuietly(input);
 
             input = file.getInputStream();
-            return parse(input, sources, moduleName, hashToMessageMapping, categories);
+            return parse(input, sources, moduleName, hashToMessageMapping, categories, hasCloudData);
+        }
+        finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Parses the specified file in a single pass. The FindBugs object model is not used, each bug is created
+     * directly from its XML element as soon as the element has been read. If a bug instance does not contain a
+     * message, then the file is parsed using the FindBugs library, so both modes create the same messages.
+     *
+     * @param file
+     *            the FindBugs analysis file
+     * @param sources
+     *            a collection of folders to scan for source files
+     * @param moduleName
+     *            name of maven module
+     * @return the parsed result or <code>null</code> if the file needs to be parsed using the FindBugs library
+     * @throws IOException
+     *             if the file could not be parsed
+     */
+    private Collection<FileAnnotation> parseSinglePass(final InputStreamProvider file, final Collection<String> sources,
+            final String moduleName) throws IOException {
+        InputStream input = null;
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(FindBugsParser.class.getClassLoader());
+
+            input = file.getInputStream();
+            BugCollectionReader reader = new BugCollectionReader();
+            BugConverter converter = new BugConverter(reader, sources, moduleName);
+            if (reader.read(input, converter)) {
+                return converter.getAnnotations();
+            }
+            return null;
+        }
+        catch (XMLStreamException exception) {
+            throw new IOException(exception);
         }
         finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
             IOUtils.closeQuietly(input);
         }
     }
@@ -251,6 +366,8 @@ public class FindBugsParser implements AnnotationParser {
      *            mapping of hash codes to messages
      * @param categories
      *            mapping from bug types to their categories
+     * @param hasCloudData
+     *            determines whether one of the bug instances contains FindBugs cloud data
      * @return the parsed result (stored in the module instance)
      * @throws IOException
      *             if the file could not be parsed
@@ -259,8 +376,9 @@ public class FindBugsParser implements AnnotationParser {
      */
     private Collection<FileAnnotation> parse(final InputStream file, final Collection<String> sources,
             final String moduleName, final Map<String, String> hashToMessageMapping,
-            final Map<String, String> categories) throws IOException, DocumentException {
+            final Map<String, String> categories, final boolean hasCloudData) throws IOException, DocumentException {
         SortedBugCollection collection = readXml(file);
+        CloudInformation cloudInformation = CloudInformation.create(collection, hasCloudData);
 
         Project project = collection.getProject();
         for (String sourceFolder : sources) {
@@ -268,93 +386,63 @@ public class FindBugsParser implements AnnotationParser {
         }
 
         SourceFinder sourceFinder = new SourceFinder(project);
+        SourceFileCache.Scope sourceFiles = sourceFileCache.getScope(project.getSourceDirList());
         String actualName = extractModuleName(moduleName, project);
 
-        TreeStringBuilder stringPool = new TreeStringBuilder();
         List<FileAnnotation> annotations = new ArrayList<FileAnnotation>();
         Collection<BugInstance> bugs = collection.getCollection();
 
         for (BugInstance warning : bugs) {
 
+            String type = warning.getType();
+            String category = categories.get(type);
+            if (category == null) { // alternately, only if warning.getBugPattern().getType().equals("UNKNOWN")
+                category = warning.getBugPattern().getCategory();
+            }
+            int rank = warning.getBugRank();
+            Priority priority = getPriority(warning.getPriority(), rank);
+            if (!bugFilter.accepts(priority, rank, category, type)) {
+                continue;
+            }
+
             SourceLineAnnotation sourceLine = warning.getPrimarySourceLineAnnotation();
+            String fileName = findSourceFile(project, sourceFinder, sourceFiles, sourceLine);
+            if (!fileNameFilter.accepts(fileName)) {
+                continue;
+            }
 
             String message = warning.getMessage();
-            String type = warning.getType();
             if (message.contains("TEST: Unknown")) {
                 message = FindBugsMessages.getInstance().getShortMessage(type, LocaleProvider.getLocale());
             }
-            String category = categories.get(type);
-            if (category == null) { // alternately, only if warning.getBugPattern().getType().equals("UNKNOWN")
-                category = warning.getBugPattern().getCategory();
-            }
-            Bug bug = new Bug(getPriority(warning), StringUtils.defaultIfEmpty(
+            Bug bug = createBug(priority, StringUtils.defaultIfEmpty(
                     hashToMessageMapping.get(warning.getInstanceHash()), message), category, type,
                     sourceLine.getStartLine(), sourceLine.getEndLine());
             bug.setInstanceHash(warning.getInstanceHash());
-            bug.setRank(warning.getBugRank());
+            bug.setRank(rank);
 
-            boolean ignore = setCloudInformation(collection, warning, bug);
+            boolean ignore = cloudInformation.apply(warning, bug);
             if (!ignore) {
                 bug.setNotAProblem(false);
-                bug.setFileName(findSourceFile(project, sourceFinder, sourceLine));
-                bug.setPackageName(warning.getPrimaryClass().getPackageName());
-                bug.setModuleName(actualName);
+                setLocation(bug, fileName, warning.getPrimaryClass().getPackageName(), actualName);
                 setAffectedLines(warning, bug);
 
                 annotations.add(bug);
-                bug.intern(stringPool);
+                stringPool.internFileName(bug);
             }
 
         }
 
-        return applyFilters(annotations);
+        return annotations;
     }
 
 
-    /**
-     * Applies the exclude and include filters to the found annotations.
-     *
-     * @param allAnnotations
-     *            all annotations
-     * @return the filtered annotations if there is a filter defined
-     */
-    private List<FileAnnotation> applyFilters(final List<FileAnnotation> allAnnotations) {
-        List<FileAnnotation> includedAnnotations;
-        if (includePatterns.isEmpty()) {
-            includedAnnotations = allAnnotations;
-        }
-        else {
-            includedAnnotations = new ArrayList<FileAnnotation>();
-            for (FileAnnotation annotation : allAnnotations) {
-                for (Pattern include : includePatterns) {
-                    if (include.matcher(annotation.getFileName()).matches()) {
-                        includedAnnotations.add(annotation);
-                    }
-                }
-            }
-        }
-        if (excludePatterns.isEmpty()) {
-            return includedAnnotations;
-        }
-        else {
-            List<FileAnnotation> excludedAnnotations = new ArrayList<FileAnnotation>(includedAnnotations);
-            for (FileAnnotation annotation : includedAnnotations) {
-                for (Pattern exclude : excludePatterns) {
-                    if (exclude.matcher(annotation.getFileName()).matches()) {
-                        excludedAnnotations.remove(annotation);
-                    }
-                }
-            }
-            return excludedAnnotations;
-        }
-    }
-
-    private Priority getPriority(final BugInstance warning) {
+    private Priority getPriority(final int priority, final int rank) {
         if (isRankActivated) {
-            return getPriorityByRank(warning);
+            return getPriorityByRank(rank);
         }
         else {
-            return getPriorityByPriority(warning);
+            return getPriorityByPriority(priority);
         }
     }
 
@@ -371,36 +459,6 @@ public class FindBugsParser implements AnnotationParser {
         }
     }
 
-    /**
-     * Sets the cloud information.
-     *
-     * @param collection
-     *            the warnings collection
-     * @param warning
-     *            the warning
-     * @param bug
-     *            the bug
-     * @return true, if this warning is not a bug and should be ignored
-     */
-    @SuppressFBWarnings("NP")
-    private boolean setCloudInformation(final SortedBugCollection collection, final BugInstance warning, final Bug bug) {
-        Cloud cloud = collection.getCloud();
-        cloud.waitUntilIssueDataDownloaded();
-
-        bug.setShouldBeInCloud(cloud.isOnlineCloud());
-        Map<String, String> cloudDetails = collection.getXmlCloudDetails();
-        bug.setDetailsUrlTemplate(cloudDetails.get(CLOUD_DETAILS_URL_PROPERTY));
-
-        long firstSeen = cloud.getFirstSeen(warning);
-        bug.setInCloud(cloud.isInCloud(warning));
-        bug.setFirstSeen(firstSeen);
-        int ageInDays = (int)((collection.getAnalysisTimestamp() - firstSeen) / DAY_IN_MSEC);
-        bug.setAgeInDays(ageInDays);
-        bug.setReviewCount(cloud.getNumberReviewers(warning));
-
-        return cloud.overallClassificationIsNotAProblem(warning);
-    }
-
     private void setAffectedLines(final BugInstance warning, final Bug bug) {
         Iterator<BugAnnotation> annotationIterator = warning.annotationIterator();
         while (annotationIterator.hasNext()) {
@@ -412,34 +470,68 @@ public class FindBugsParser implements AnnotationParser {
         }
     }
 
+    /**
+     * Returns the absolute file name of the source file of the specified source line. The file names are cached,
+     * so the source folders are searched only once for each source file. If the source index is activated, then
+     * the file is looked up in the index and the FindBugs library is used only for source folders that could not
+     * be indexed.
+     *
+     * @param project
+     *            the project with the source folders
+     * @param sourceFinder
+     *            the source finder to use if the file is not yet cached
+     * @param sourceFiles
+     *            the cached file names for the source folders of the project
+     * @param sourceLine
+     *            the source line to find the file for
+     * @return the absolute file name, or the relative file name if the file could not be resolved
+     */
     private String findSourceFile(final Project project, final SourceFinder sourceFinder,
-            final SourceLineAnnotation sourceLine) {
-        try {
-            SourceFile sourceFile = sourceFinder.findSourceFile(sourceLine);
-            return sourceFile.getFullFileName();
+            final SourceFileCache.Scope sourceFiles, final SourceLineAnnotation sourceLine) {
+        String fileName = sourceFiles.get(sourceLine.getPackageName(), sourceLine.getSourceFile());
+        if (fileName == null && isSourceIndexActivated) {
+            SourceIndex index = sourceFiles.getIndex();
+            fileName = index.find(sourceLine.getPackageName(), sourceLine.getSourceFile());
+            if (fileName != null) {
+                sourceFiles.put(sourceLine.getPackageName(), sourceLine.getSourceFile(), fileName, true);
+            }
+            else if (index.isComplete()) {
+                fileName = getRelativeFileName(project, sourceLine);
+                sourceFiles.put(sourceLine.getPackageName(), sourceLine.getSourceFile(), fileName, false);
+            }
         }
-        catch (IOException exception) {
-            StringBuilder sb = new StringBuilder("Can't resolve absolute file name for file ");
-            sb.append(sourceLine.getSourceFile());
-            if (isFirstError) {
-                sb.append(", dir list = ");
-                sb.append( project.getSourceDirList());
-                isFirstError = false;
+        if (fileName == null) {
+            try {
+                fileName = sourceFinder.findSourceFile(sourceLine).getFullFileName();
+                sourceFiles.put(sourceLine.getPackageName(), sourceLine.getSourceFile(), fileName, true);
+            }
+            catch (IOException exception) {
+                fileName = getRelativeFileName(project, sourceLine);
+                sourceFiles.put(sourceLine.getPackageName(), sourceLine.getSourceFile(), fileName, false);
             }
-            Logger.getLogger(getClass().getName()).log(Level.WARNING, sb.toString());
-            return sourceLine.getPackageName().replace(DOT, SLASH) + SLASH + sourceLine.getSourceFile();
         }
+        return fileName;
+    }
+
+    private String getRelativeFileName(final Project project, final SourceLineAnnotation sourceLine) {
+        StringBuilder sb = new StringBuilder("Can't resolve absolute file name for file ");
+        sb.append(sourceLine.getSourceFile());
+        if (isFirstError.compareAndSet(true, false)) {
+            sb.append(", dir list = ");
+            sb.append( project.getSourceDirList());
+        }
+        Logger.getLogger(getClass().getName()).log(Level.WARNING, sb.toString());
+        return sourceLine.getPackageName().replace(DOT, SLASH) + SLASH + sourceLine.getSourceFile();
     }
 
     /**
      * Maps the FindBugs library rank to plug-in priority enumeration.
      *
-     * @param warning
-     *            the FindBugs warning
+     * @param rank
+     *            the rank of the FindBugs warning
      * @return mapped priority enumeration
      */
-    private Priority getPriorityByRank(final BugInstance warning) {
-        int rank = warning.getBugRank();
+    private Priority getPriorityByRank(final int rank) {
         if (rank <= HIGH_PRIORITY_LOWEST_RANK) {
             return Priority.HIGH;
         }
@@ -452,12 +544,12 @@ public class FindBugsParser implements AnnotationParser {
     /**
      * Maps the FindBugs library priority to plug-in priority enumeration.
      *
-     * @param warning
-     *            the FindBugs warning
+     * @param priority
+     *            the priority of the FindBugs warning
      * @return mapped priority enumeration
      */
-    private Priority getPriorityByPriority(final BugInstance warning) {
-        switch (warning.getPriority()) {
+    private Priority getPriorityByPriority(final int priority) {
+        switch (priority) {
             case 1:
                 return Priority.HIGH;
             case 2:
@@ -485,6 +577,104 @@ public class FindBugsParser implements AnnotationParser {
         }
     }
 
+    /**
+     * Converts the bug instances of the single pass reader to bugs while the file is read.
+     */
+    private final class BugConverter implements BugCollectionReader.BugInstanceHandler {
+        private final BugCollectionReader reader;
+        private final Collection<String> sources;
+        private final String moduleName;
+
+        private final Map<String, BugInstance> prototypes = new HashMap<String, BugInstance>();
+        private final List<FileAnnotation> annotations = new ArrayList<FileAnnotation>();
+
+        private Project project;
+        private SourceFinder sourceFinder;
+        private SourceFileCache.Scope sourceFiles;
+        private String actualName;
+
+        BugConverter(final BugCollectionReader reader, final Collection<String> sources, final String moduleName) {
+            this.reader = reader;
+            this.sources = sources;
+            this.moduleName = moduleName;
+        }
+
+        List<FileAnnotation> getAnnotations() {
+            return annotations;
+        }
+
+        @Override
+        public void handle(final XmlBugInstance warning) {
+            if (project == null) {
+                initializeProject();
+            }
+
+            BugInstance prototype = getPrototype(warning);
+            String category = warning.getCategory();
+            if (category == null) {
+                category = prototype.getBugPattern().getCategory();
+            }
+            int rank = prototype.getBugRank();
+            Priority priority = getPriority(warning.getPriority(), rank);
+            if (!bugFilter.accepts(priority, rank, category, warning.getType())) {
+                return;
+            }
+
+            SourceLineAnnotation sourceLine = warning.getPrimarySourceLine();
+            String fileName = findSourceFile(project, sourceFinder, sourceFiles, sourceLine);
+            if (!fileNameFilter.accepts(fileName)) {
+                return;
+            }
+
+            Bug bug = createBug(priority, warning.getMessage(), category, warning.getType(),
+                    sourceLine.getStartLine(), sourceLine.getEndLine());
+            bug.setInstanceHash(warning.getInstanceHash());
+            bug.setRank(rank);
+            bug.setNotAProblem(false);
+            setLocation(bug, fileName, warning.getPackageName(), actualName);
+            for (LineRange lineRange : warning.getLineRanges()) {
+                bug.addLineRange(lineRange);
+            }
+
+            annotations.add(bug);
+            stringPool.internFileName(bug);
+        }
+
+        /**
+         * Creates the project when the first bug instance is handed over: the project section precedes the bug
+         * instances in the FindBugs XML file.
+         */
+        private void initializeProject() {
+            project = new Project();
+            for (String sourceFolder : reader.getSourceDirectories()) {
+                project.addSourceDir(sourceFolder);
+            }
+            for (String sourceFolder : sources) {
+                project.addSourceDir(sourceFolder);
+            }
+            project.setProjectName(reader.getProjectName());
+
+            sourceFinder = new SourceFinder(project);
+            sourceFiles = sourceFileCache.getScope(project.getSourceDirList());
+            actualName = extractModuleName(moduleName, project);
+        }
+
+        /**
+         * Returns a bug instance without annotations that has the same type and priority as the specified
+         * warning. Such a prototype is used to obtain the rank and the category of the bug pattern from the
+         * FindBugs library.
+         */
+        private BugInstance getPrototype(final XmlBugInstance warning) {
+            String key = warning.getType() + SLASH + warning.getPriority();
+            BugInstance prototype = prototypes.get(key);
+            if (prototype == null) {
+                prototype = new BugInstance(warning.getType(), warning.getPriority());
+                prototypes.put(key, prototype);
+            }
+            return prototype;
+        }
+    }
+
     /**
      * Provides an input stream for the parser.
      */
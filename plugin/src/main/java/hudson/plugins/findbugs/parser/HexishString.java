@@ -1,6 +1,8 @@
 package hudson.plugins.findbugs.parser;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
@@ -28,6 +30,10 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  * but in this form it only occupies about 64 bytes if it's hex, and 112 when it's not. So it's more space efficient
  * either way.
  *
+ * <p>
+ * The common case of a 128 bit hex value (32 hex characters) is stored inline in two longs, so it
+ * needs no array at all and two instances are compared with two long comparisons.
+ *
  * @author Kohsuke Kawaguchi
  */
 @SuppressFBWarnings("")
@@ -35,19 +41,117 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 //CHECKSTYLE:OFF
 public final class HexishString implements Serializable {
     private static final long serialVersionUID = 2925134919588181979L;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final int HASH_LENGTH = 16;
+
+    /** The string, or {@code null} if the string is a 128 bit hex value that is stored in {@link #high} and {@link #low}. */
     private final Serializable content;
+    /** The first 64 bits of a 128 bit hex value. */
+    private final long high;
+    /** The last 64 bits of a 128 bit hex value. */
+    private final long low;
+    /** Cache for the hash code, same value as the hash code of {@link #toString()}. */
+    private transient int hash;
 
     public HexishString(final String value) {
-        if (isHex(value)) {
-            try {
-                content = Hex.decodeHex(value.toCharArray());
-            } catch (DecoderException e) {
-                throw new AssertionError(e);    // we've already verified that value is a valid hex
-            }
+        this(isHex(value) ? decodeHex(value) : null, value);
+    }
+
+    /**
+     * Creates a new instance from the raw bytes of a hexadecimal string.
+     */
+    HexishString(final byte[] bytes) {
+        this(bytes.clone(), null);
+    }
+
+    /**
+     * Creates a new instance of a 128 bit hexadecimal string.
+     */
+    HexishString(final long high, final long low) {
+        content = null;
+        this.high = high;
+        this.low = low;
+    }
+
+    private HexishString(final byte[] bytes, final String value) {
+        if (bytes == null) {
+            content = value.toCharArray();
+            high = 0;
+            low = 0;
+        }
+        else if (bytes.length == HASH_LENGTH) {
+            // the common case of an MD5 instance hash is stored without an array
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            content = null;
+            high = buffer.getLong();
+            low = buffer.getLong();
         }
         else {
-            content = value.toCharArray();
+            content = bytes;
+            high = 0;
+            low = 0;
+        }
+    }
+
+    private static byte[] decodeHex(final String value) {
+        try {
+            return Hex.decodeHex(value.toCharArray());
+        } catch (DecoderException e) {
+            throw new AssertionError(e);    // we've already verified that value is a valid hex
+        }
+    }
+
+    /**
+     * Converts instances that have been serialized with a 128 bit array into the inline form.
+     */
+    private Object readResolve() {
+        if (content instanceof byte[] && ((byte[])content).length == HASH_LENGTH) {
+            return new HexishString((byte[])content);
+        }
+        return this;
+    }
+
+    /**
+     * Returns whether this string is a 128 bit hex value that is stored in two longs.
+     *
+     * @return {@code true} if this string is a 128 bit hex value
+     */
+    boolean is128Bit() {
+        return content == null;
+    }
+
+    /**
+     * Returns the first 64 bits of a 128 bit hex value.
+     *
+     * @return the first 64 bits, or 0 if this string is not a 128 bit hex value
+     */
+    long getHigh() {
+        return high;
+    }
+
+    /**
+     * Returns the last 64 bits of a 128 bit hex value.
+     *
+     * @return the last 64 bits, or 0 if this string is not a 128 bit hex value
+     */
+    long getLow() {
+        return low;
+    }
+
+    /**
+     * Returns the raw bytes of this string, if it is a hexadecimal string.
+     *
+     * @return the bytes, or {@code null} if this string is not hexadecimal
+     */
+    byte[] getBytes() {
+        if (is128Bit()) {
+            return ByteBuffer.allocate(HASH_LENGTH).putLong(high).putLong(low).array();
         }
+        if (content instanceof byte[]) {
+            return ((byte[])content).clone();
+        }
+        return null;
     }
 
     @Override
@@ -56,21 +160,70 @@ public final class HexishString implements Serializable {
             return new String((char[])content);
         }
         else {
-            return Hex.encodeHexString((byte[])content);
+            return Hex.encodeHexString(getBytes());
         }
     }
 
+    /**
+     * Compares the underlying values, a hex string is never equal to a non-hex string since
+     * non-hex strings are never stored as byte[] or longs.
+     */
     @Override
     public boolean equals(final Object that) {
-        return that instanceof HexishString && toString().equals(that.toString());
+        if (this == that) {
+            return true;
+        }
+        if (!(that instanceof HexishString)) {
+            return false;
+        }
+        HexishString other = (HexishString)that;
+        if (is128Bit()) {
+            return other.is128Bit() && high == other.high && low == other.low;
+        }
+        if (content instanceof byte[]) {
+            return other.content instanceof byte[] && Arrays.equals((byte[])content, (byte[])other.content);
+        }
+        return other.content instanceof char[] && Arrays.equals((char[])content, (char[])other.content);
     }
 
+    /**
+     * Computes the same hash code as {@code toString().hashCode()} without creating the string.
+     */
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        int h = hash;
+        if (h == 0) {
+            if (is128Bit()) {
+                h = hashHex(hashHex(0, high), low);
+            }
+            else if (content instanceof byte[]) {
+                for (byte b : (byte[])content) {
+                    h = hashHex(h, b);
+                }
+            }
+            else {
+                for (char c : (char[])content) {
+                    h = 31 * h + c;
+                }
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    private static int hashHex(final int h, final long value) {
+        int result = h;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            result = hashHex(result, (byte)(value >>> shift));
+        }
+        return result;
+    }
+
+    private static int hashHex(final int h, final byte b) {
+        return 31 * (31 * h + HEX_DIGITS[(b >> 4) & 0xf]) + HEX_DIGITS[b & 0xf];
     }
 
-    private boolean isHex(final String value) {
+    private static boolean isHex(final String value) {
         int len = value.length();
         if (len%2==1)
          {
@@ -0,0 +1,406 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Sorted index of the instance hashes of the bugs of a build. Each entry consists of the 128 bit
+ * instance hash of a bug, the position of the bug in the list the index has been created from, the
+ * key of the bug, and the context hash code of the bug. The new and fixed bugs of two builds are
+ * computed by looking up the hashes of one build in a {@link LongPairSet} of the hashes of the
+ * other build, so the bugs of the reference build do not need to be loaded. The fixed bugs are
+ * identified by their keys, so they can be read from the reference build regardless of the format
+ * its bugs have been stored in. Like the {@code AnnotationDifferencer} of analysis-core, bugs with
+ * a different instance hash but the same context hash code as a bug of the other build are
+ * neither new nor fixed.
+ * <p>
+ * Instance hashes of FindBugs are hexadecimal MD5 values and are used as they are. Other hashes
+ * are mapped to 128 bits using MD5. Bugs without an instance hash are mapped to the MD5 value of
+ * their type, package, file name, and message.
+ * </p>
+ *
+ * @author Ulli Hafner
+ */
+public final class InstanceHashIndex {
+    /** Magic number at the beginning of each file: "FBH" followed by a zero byte. */
+    private static final int MAGIC = 0x46424800;
+    private static final int VERSION = 2;
+    /** The first version without the keys and context hash codes, files of this version can still be read. */
+    private static final int VERSION_WITHOUT_CONTEXT = 1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    /** Separates the properties of a bug without an instance hash, so they can't be confused. */
+    private static final char SEPARATOR = '\0';
+
+    private final long[] high;
+    private final long[] low;
+    private final int[] positions;
+    /** The keys of the bugs, or <code>null</code> if not stored. */
+    private final long[] keys;
+    /** The context hash codes of the bugs, or <code>null</code> if not stored. */
+    private final long[] contextHashes;
+
+    private InstanceHashIndex(final long[] high, final long[] low, final int[] positions, final long[] keys,
+            final long[] contextHashes) {
+        this.high = high;
+        this.low = low;
+        this.positions = positions;
+        this.keys = keys;
+        this.contextHashes = contextHashes;
+    }
+
+    /**
+     * Creates the index of the specified bugs. Annotations that are not bugs are skipped, but
+     * still count for the positions.
+     *
+     * @param annotations
+     *            the bugs to index
+     * @return the index
+     */
+    public static InstanceHashIndex create(final List<? extends FileAnnotation> annotations) {
+        List<Entry> entries = new ArrayList<Entry>(annotations.size());
+        for (int i = 0; i < annotations.size(); i++) {
+            FileAnnotation annotation = annotations.get(i);
+            if (annotation instanceof Bug) {
+                long[] hash = getHash((Bug)annotation);
+                entries.add(new Entry(hash[0], hash[1], i, annotation.getKey(), annotation.getContextHashCode()));
+            }
+        }
+        Entry[] sorted = entries.toArray(new Entry[entries.size()]);
+        Arrays.sort(sorted, new EntryComparator());
+
+        long[] high = new long[sorted.length];
+        long[] low = new long[sorted.length];
+        int[] positions = new int[sorted.length];
+        long[] keys = new long[sorted.length];
+        long[] contextHashes = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            high[i] = sorted[i].high;
+            low[i] = sorted[i].low;
+            positions[i] = sorted[i].position;
+            keys[i] = sorted[i].key;
+            contextHashes[i] = sorted[i].contextHash;
+        }
+        return new InstanceHashIndex(high, low, positions, keys, contextHashes);
+    }
+
+    /**
+     * Returns whether this index contains the keys and context hash codes of the bugs. Indexes
+     * that have been written by older releases contain the instance hashes only.
+     *
+     * @return <code>true</code> if the keys and context hash codes are available
+     */
+    public boolean hasContextHashes() {
+        return contextHashes != null;
+    }
+
+    /**
+     * Returns the new bugs of the specified current bugs, if this index belongs to the reference
+     * build. A bug is new if neither its instance hash nor its context hash code is part of this
+     * index.
+     *
+     * @param current
+     *            the bugs of the current build
+     * @return the new bugs, in the order of the specified bugs
+     * @throws IllegalStateException
+     *             if this index contains no context hash codes
+     */
+    public List<FileAnnotation> getNew(final Collection<? extends FileAnnotation> current) {
+        long[] referenceContext = getContextHashes();
+        LongPairSet referenceHashes = toSet();
+        List<FileAnnotation> newBugs = new ArrayList<FileAnnotation>();
+        for (FileAnnotation annotation : current) {
+            if (!contains(referenceHashes, annotation)
+                    && Arrays.binarySearch(referenceContext, annotation.getContextHashCode()) < 0) {
+                newBugs.add(annotation);
+            }
+        }
+        return newBugs;
+    }
+
+    /**
+     * Returns the keys of the fixed bugs, if this index belongs to the reference build. A bug is
+     * fixed if neither its instance hash nor its context hash code is part of the specified
+     * current bugs.
+     *
+     * @param current
+     *            the bugs of the current build
+     * @return the keys of the fixed bugs, in the order of the bugs of the reference build
+     * @throws IllegalStateException
+     *             if this index contains no context hash codes
+     */
+    public long[] getFixedKeys(final Collection<? extends FileAnnotation> current) {
+        long[] referenceContext = getContextHashes();
+        long[] currentContext = new long[current.size()];
+        int size = 0;
+        for (FileAnnotation annotation : current) {
+            currentContext[size++] = annotation.getContextHashCode();
+        }
+        Arrays.sort(currentContext);
+
+        LongPairSet currentHashes = toSet(current);
+        long[] fixed = new long[size()];
+        int count = 0;
+        for (int i = 0; i < size(); i++) {
+            if (!currentHashes.contains(high[i], low[i])
+                    && Arrays.binarySearch(currentContext, contextHashes[i]) < 0) {
+                fixed[count++] = (long)positions[i] << 32 | i;
+            }
+        }
+        Arrays.sort(fixed, 0, count); // the positions are not negative, so the entries are ordered by position
+
+        long[] fixedKeys = new long[count];
+        for (int i = 0; i < count; i++) {
+            fixedKeys[i] = keys[(int)fixed[i]];
+        }
+        return fixedKeys;
+    }
+
+    private long[] getContextHashes() {
+        if (!hasContextHashes()) {
+            throw new IllegalStateException("The index contains no context hash codes");
+        }
+        long[] sorted = Arrays.copyOf(contextHashes, contextHashes.length);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Returns whether the instance hash of the specified bug is part of the given set.
+     *
+     * @param hashes
+     *            the instance hashes
+     * @param annotation
+     *            the bug to look up
+     * @return <code>true</code> if the instance hash of the bug is part of the set,
+     *         <code>false</code> otherwise or if the annotation is not a bug
+     */
+    public static boolean contains(final LongPairSet hashes, final FileAnnotation annotation) {
+        if (annotation instanceof Bug) {
+            long[] hash = getHash((Bug)annotation);
+            return hashes.contains(hash[0], hash[1]);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the 128 bit representation of the instance hash of the specified bug. Bugs without
+     * an instance hash are identified by their type, package, file name, and message, so such
+     * bugs do not share the same hash.
+     */
+    private static long[] getHash(final Bug bug) {
+        HexishString hash = bug.getHash();
+        if (hash != null && hash.is128Bit()) {
+            return new long[] {hash.getHigh(), hash.getLow()};
+        }
+        String value;
+        if (hash == null) {
+            value = bug.getType() + SEPARATOR + bug.getPackageName() + SEPARATOR + bug.getFileName()
+                    + SEPARATOR + bug.getPlainMessage();
+        }
+        else {
+            value = hash.toString();
+        }
+        ByteBuffer digest = ByteBuffer.wrap(digest(value));
+        return new long[] {digest.getLong(), digest.getLong()};
+    }
+
+    private static byte[] digest(final String value) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(value.getBytes(UTF8));
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("MD5 is not supported", exception);
+        }
+    }
+
+    /**
+     * Creates a set with the instance hashes of the specified bugs.
+     *
+     * @param annotations
+     *            the bugs
+     * @return the instance hashes
+     */
+    public static LongPairSet toSet(final Collection<? extends FileAnnotation> annotations) {
+        LongPairSet set = new LongPairSet(annotations.size());
+        for (FileAnnotation annotation : annotations) {
+            if (annotation instanceof Bug) {
+                long[] hash = getHash((Bug)annotation);
+                set.add(hash[0], hash[1]);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Creates a set with the instance hashes of this index.
+     *
+     * @return the instance hashes
+     */
+    public LongPairSet toSet() {
+        LongPairSet set = new LongPairSet(size());
+        for (int i = 0; i < size(); i++) {
+            set.add(high[i], low[i]);
+        }
+        return set;
+    }
+
+    /**
+     * Returns the number of indexed bugs.
+     *
+     * @return the number of bugs
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    private static int compare(final long high1, final long low1, final long high2, final long low2) {
+        int result = compareUnsigned(high1, high2);
+        if (result == 0) {
+            return compareUnsigned(low1, low2);
+        }
+        return result;
+    }
+
+    private static int compareUnsigned(final long first, final long second) {
+        long left = first + Long.MIN_VALUE;
+        long right = second + Long.MIN_VALUE;
+        if (left < right) {
+            return -1;
+        }
+        return left == right ? 0 : 1;
+    }
+
+    /**
+     * Writes this index to the specified file.
+     *
+     * @param file
+     *            the file to write to
+     * @throws IOException
+     *             if the file could not be written
+     */
+    public void write(final File file) throws IOException {
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(file);
+            write(stream);
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Writes this index to the specified stream.
+     *
+     * @param stream
+     *            the stream to write to, the stream is not closed
+     * @throws IOException
+     *             if the stream could not be written
+     */
+    public void write(final OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(size());
+        for (int i = 0; i < size(); i++) {
+            output.writeLong(high[i]);
+            output.writeLong(low[i]);
+            output.writeInt(positions[i]);
+            output.writeLong(keys[i]);
+            output.writeLong(contextHashes[i]);
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads the index of the specified file.
+     *
+     * @param file
+     *            the file to read
+     * @return the index
+     * @throws IOException
+     *             if the file could not be read or contains no index
+     */
+    public static InstanceHashIndex read(final File file) throws IOException {
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Unknown format of instance hash index " + file);
+            }
+            int version = input.readInt();
+            if (version != VERSION && version != VERSION_WITHOUT_CONTEXT) {
+                throw new IOException("Unsupported version of instance hash index: " + version);
+            }
+            boolean hasContext = version == VERSION;
+            int size = input.readInt();
+            long[] high = new long[size];
+            long[] low = new long[size];
+            int[] positions = new int[size];
+            long[] keys = hasContext ? new long[size] : null;
+            long[] contextHashes = hasContext ? new long[size] : null;
+            for (int i = 0; i < size; i++) {
+                high[i] = input.readLong();
+                low[i] = input.readLong();
+                positions[i] = input.readInt();
+                if (hasContext) {
+                    keys[i] = input.readLong();
+                    contextHashes[i] = input.readLong();
+                }
+            }
+            return new InstanceHashIndex(high, low, positions, keys, contextHashes);
+        }
+        finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * An instance hash, the position and key of its bug, and the context hash code of the bug.
+     */
+    private static final class Entry {
+        private final long high;
+        private final long low;
+        private final int position;
+        private final long key;
+        private final long contextHash;
+
+        Entry(final long high, final long low, final int position, final long key, final long contextHash) {
+            this.high = high;
+            this.low = low;
+            this.position = position;
+            this.key = key;
+            this.contextHash = contextHash;
+        }
+    }
+
+    /**
+     * Orders the entries by their instance hashes.
+     */
+    private static final class EntryComparator implements Comparator<Entry> {
+        @Override
+        public int compare(final Entry first, final Entry second) {
+            return InstanceHashIndex.compare(first.high, first.low, second.high, second.low);
+        }
+    }
+}
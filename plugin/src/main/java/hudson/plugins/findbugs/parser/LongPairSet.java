@@ -0,0 +1,113 @@
+package hudson.plugins.findbugs.parser;
+
+/**
+ * Set of 128 bit values, each given as a pair of longs. The set uses open addressing with linear
+ * probing in two parallel arrays, so adding and finding a value does not create any objects.
+ * Values can't be removed.
+ *
+ * @author Ulli Hafner
+ */
+public final class LongPairSet {
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private long[] highs;
+    private long[] lows;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Creates a new instance of {@link LongPairSet}.
+     *
+     * @param expectedSize
+     *            the expected number of values
+     */
+    public LongPairSet(final int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(final int size) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < 2 * size) { // load factor of at most 0.5
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(final int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    private int indexOf(final long high, final long low) {
+        long mixed = (high ^ low) * 0x9E3779B97F4A7C15L;
+        int mask = used.length - 1;
+        int index = (int)(mixed ^ mixed >>> 32) & mask;
+        while (used[index] && (highs[index] != high || lows[index] != low)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Adds the specified value to this set.
+     *
+     * @param high
+     *            the first 64 bits of the value
+     * @param low
+     *            the last 64 bits of the value
+     * @return <code>true</code> if the value has been added, <code>false</code> if the value is
+     *         already part of this set
+     */
+    public boolean add(final long high, final long low) {
+        int index = indexOf(high, low);
+        if (used[index]) {
+            return false;
+        }
+        used[index] = true;
+        highs[index] = high;
+        lows[index] = low;
+        size++;
+        if (2 * size > used.length) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        boolean[] oldUsed = used;
+        allocate(used.length << 1);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldHighs[i], oldLows[i]);
+                used[index] = true;
+                highs[index] = oldHighs[i];
+                lows[index] = oldLows[i];
+            }
+        }
+    }
+
+    /**
+     * Returns whether the specified value is part of this set.
+     *
+     * @param high
+     *            the first 64 bits of the value
+     * @param low
+     *            the last 64 bits of the value
+     * @return <code>true</code> if the value is part of this set, <code>false</code> otherwise
+     */
+    public boolean contains(final long high, final long low) {
+        return used[indexOf(high, low)];
+    }
+
+    /**
+     * Returns the number of values in this set.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+}
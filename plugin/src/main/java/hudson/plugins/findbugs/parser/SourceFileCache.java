@@ -0,0 +1,160 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the absolute file names of the resolved source files. The cache is shared by all FindBugs XML files that
+ * are parsed by the same {@link FindBugsParser}, i.e. by all files of a build. Since the source directories might
+ * be different for each file (e.g., if they are guessed based on the module root), the cache consists of a
+ * separate {@link Scope} for each list of source directories. Within a scope the file names are cached using the
+ * package and the name of the source file as key. Files that could not be resolved are cached as well.
+ *
+ * @author Ulli Hafner
+ */
+class SourceFileCache implements Serializable {
+    private static final long serialVersionUID = 5369514447851216528L;
+
+    private final ConcurrentMap<List<String>, Scope> scopes = new ConcurrentHashMap<List<String>, Scope>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger unresolved = new AtomicInteger();
+    private final AtomicInteger indexedFiles = new AtomicInteger();
+
+    /**
+     * Returns the scope for the specified source directories.
+     *
+     * @param sourceDirectories
+     *            the source directories that are used to resolve the files
+     * @return the scope
+     */
+    public Scope getScope(final Collection<String> sourceDirectories) {
+        List<String> key = new ArrayList<String>(sourceDirectories);
+        Scope scope = scopes.get(key);
+        if (scope == null) {
+            scopes.putIfAbsent(key, new Scope(key));
+            scope = scopes.get(key);
+        }
+        return scope;
+    }
+
+    /**
+     * Returns the number of file names that have been served by the cache.
+     *
+     * @return the number of cache hits
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of file names that needed to be resolved.
+     *
+     * @return the number of cache misses
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of source files that could not be resolved.
+     *
+     * @return the number of unresolved files
+     */
+    public int getUnresolved() {
+        return unresolved.get();
+    }
+
+    /**
+     * Returns the number of files in all source indexes that have been created so far.
+     *
+     * @return the number of indexed files
+     */
+    public int getIndexedFiles() {
+        return indexedFiles.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Source file cache: %d hits, %d misses, %d unresolved files, %d indexed files",
+                getHits(), getMisses(), getUnresolved(), getIndexedFiles());
+    }
+
+    /**
+     * Cached file names for a given list of source directories.
+     */
+    class Scope implements Serializable {
+        private static final long serialVersionUID = -8181391049716709454L;
+
+        private final List<String> sourceDirectories;
+        private final ConcurrentMap<String, String> fileNames = new ConcurrentHashMap<String, String>();
+        private transient SourceIndex index;
+
+        Scope(final List<String> sourceDirectories) {
+            this.sourceDirectories = sourceDirectories;
+        }
+
+        /**
+         * Returns the index of the source directories of this scope. The index is created on first access, so
+         * the source directories are walked at most once.
+         *
+         * @return the index of the source directories
+         */
+        public synchronized SourceIndex getIndex() {
+            if (index == null) {
+                index = new SourceIndex(sourceDirectories);
+                indexedFiles.addAndGet(index.size());
+            }
+            return index;
+        }
+
+        /**
+         * Returns the cached absolute file name of the specified source file.
+         *
+         * @param packageName
+         *            the package of the source file
+         * @param sourceFile
+         *            the name of the source file
+         * @return the absolute file name, or <code>null</code> if the file has not been resolved yet
+         */
+        public String get(final String packageName, final String sourceFile) {
+            String fileName = fileNames.get(createKey(packageName, sourceFile));
+            if (fileName == null) {
+                misses.incrementAndGet();
+            }
+            else {
+                hits.incrementAndGet();
+            }
+            return fileName;
+        }
+
+        /**
+         * Stores the absolute file name of the specified source file.
+         *
+         * @param packageName
+         *            the package of the source file
+         * @param sourceFile
+         *            the name of the source file
+         * @param fileName
+         *            the resolved absolute file name or the fallback name if the file could not be resolved
+         * @param isResolved
+         *            determines whether the file has been resolved
+         */
+        public void put(final String packageName, final String sourceFile, final String fileName,
+                final boolean isResolved) {
+            if (fileNames.putIfAbsent(createKey(packageName, sourceFile), fileName) == null && !isResolved) {
+                unresolved.incrementAndGet();
+            }
+        }
+
+        private String createKey(final String packageName, final String sourceFile) {
+            return packageName + '/' + sourceFile;
+        }
+    }
+}
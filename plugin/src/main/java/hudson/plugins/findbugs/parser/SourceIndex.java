@@ -0,0 +1,123 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Index of all files in a list of source directories. The directories are walked only once, afterwards source
+ * files are found by a simple lookup of their relative path (e.g., {@code edu/umd/cs/findbugs/Main.java}). If
+ * a file is contained in several directories, then the first directory wins, just like in the
+ * {@code SourceFinder} of the FindBugs library.
+ *
+ * @author Ulli Hafner
+ */
+class SourceIndex {
+    private static final Logger LOGGER = Logger.getLogger(SourceIndex.class.getName());
+    private static final char SLASH = '/';
+
+    /** Maps the relative path of a file to the source directory that contains the file. */
+    private final Map<String, String> directoryByPath = new HashMap<String, String>();
+    private boolean isComplete = true;
+
+    /**
+     * Creates a new instance of {@link SourceIndex} and indexes the specified source directories.
+     *
+     * @param sourceDirectories
+     *            the source directories to index
+     */
+    SourceIndex(final Collection<String> sourceDirectories) {
+        for (String sourceDirectory : sourceDirectories) {
+            index(sourceDirectory);
+        }
+    }
+
+    private void index(final String sourceDirectory) {
+        final Path root = Paths.get(sourceDirectory);
+        if (!Files.isDirectory(root)) {
+            if (Files.exists(root)) {
+                isComplete = false; // source archives are not indexed
+            }
+            return;
+        }
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        String relativePath = root.relativize(file).toString().replace(File.separatorChar, SLASH);
+                        if (!directoryByPath.containsKey(relativePath)) {
+                            directoryByPath.put(relativePath, sourceDirectory);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exception) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't index source directory " + sourceDirectory, exception);
+            isComplete = false;
+        }
+    }
+
+    /**
+     * Returns the absolute file name of the specified source file.
+     *
+     * @param packageName
+     *            the package of the source file
+     * @param sourceFile
+     *            the name of the source file
+     * @return the absolute file name, or <code>null</code> if the file is not part of the index
+     */
+    public String find(final String packageName, final String sourceFile) {
+        String relativePath;
+        if (StringUtils.isEmpty(packageName)) {
+            relativePath = sourceFile;
+        }
+        else {
+            relativePath = packageName.replace('.', SLASH) + SLASH + sourceFile;
+        }
+        String sourceDirectory = directoryByPath.get(relativePath);
+        if (sourceDirectory == null) {
+            return null;
+        }
+        return new File(sourceDirectory, relativePath.replace(SLASH, File.separatorChar)).getPath();
+    }
+
+    /**
+     * Returns whether all source directories have been indexed. If not (e.g., if a source directory is an
+     * archive or could not be read), then files that are not part of the index still need to be searched using
+     * the FindBugs library.
+     *
+     * @return <code>true</code> if all source directories have been indexed, <code>false</code> otherwise
+     */
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    /**
+     * Returns the number of indexed files.
+     *
+     * @return the number of indexed files
+     */
+    public int size() {
+        return directoryByPath.size();
+    }
+}
@@ -0,0 +1,118 @@
+package hudson.plugins.findbugs.parser;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hudson.plugins.analysis.util.TreeStringBuilder;
+import hudson.plugins.analysis.util.model.AbstractAnnotation;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+
+/**
+ * Shares the strings of the warnings of a build. The pool is used by all FindBugs XML files that
+ * are parsed by the same {@link FindBugsParser}, i.e. by all files of a build, so equal messages,
+ * categories, types, packages, and modules of different files are stored only once. The file names
+ * are shared by a {@link TreeStringBuilder}. The pool counts the strings that have been replaced by
+ * an equal string of the pool and estimates the number of bytes that have been saved this way.
+ *
+ * @author Ulli Hafner
+ */
+public class StringPool implements Serializable {
+    private static final long serialVersionUID = -6391683473862307562L;
+
+    /** Estimated size of a string without its characters: object and array headers and fields. */
+    private static final int STRING_OVERHEAD = 40;
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<String, String>();
+    private transient TreeStringBuilder fileNames;
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger replaced = new AtomicInteger();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    /**
+     * Returns the string of this pool that is equal to the specified string. If the pool does not
+     * yet contain such a string, then the specified string is added.
+     *
+     * @param value
+     *            the string to look up, might be <code>null</code>
+     * @return the shared string
+     */
+    public String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+        String shared = strings.putIfAbsent(value, value);
+        if (shared == null) {
+            return value;
+        }
+        if (shared != value) { // NOPMD: the instances are compared on purpose
+            replaced.incrementAndGet();
+            savedBytes.addAndGet(STRING_OVERHEAD + 2L * value.length());
+        }
+        return shared;
+    }
+
+    /**
+     * Shares the file name of the specified annotation with the file names of the other
+     * annotations of this pool.
+     *
+     * @param annotation
+     *            the annotation to intern
+     */
+    public synchronized void internFileName(final AbstractAnnotation annotation) {
+        if (fileNames == null) {
+            fileNames = new TreeStringBuilder();
+        }
+        annotation.intern(fileNames);
+    }
+
+    /**
+     * Replaces the strings of the specified annotations by the strings of this pool. Only the
+     * properties that provide a setter are replaced: the module, package, path, origin, and
+     * file name.
+     *
+     * @param annotations
+     *            the annotations to intern
+     */
+    public void intern(final Collection<? extends FileAnnotation> annotations) {
+        for (FileAnnotation annotation : annotations) {
+            if (annotation instanceof AbstractAnnotation) {
+                AbstractAnnotation warning = (AbstractAnnotation)annotation;
+                warning.setModuleName(intern(warning.getModuleName()));
+                warning.setPackageName(intern(warning.getPackageName()));
+                warning.setPathName(intern(warning.getPathName()));
+                warning.setOrigin(intern(warning.getOrigin()));
+                internFileName(warning);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of strings that have been replaced by an equal string of this pool.
+     *
+     * @return the number of replaced strings
+     */
+    public int getReplaced() {
+        return replaced.get();
+    }
+
+    /**
+     * Returns the estimated number of bytes that have been saved by replacing strings.
+     *
+     * @return the estimated number of saved bytes
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("String pool: %d distinct strings, %d of %d strings shared, about %d bytes saved",
+                strings.size(), getReplaced(), lookups.get(), getSavedBytes());
+    }
+}
@@ -1,8 +1,18 @@
 package hudson.plugins.findbugs.parser;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.umd.cs.findbugs.SourceLineAnnotation;
+
+import hudson.plugins.analysis.util.model.LineRange;
+
 /**
  * Java Bean to create the mapping of hash codes to messages using the Digester
- * XML parser.
+ * XML parser. The single pass {@link BugCollectionReader} additionally stores the
+ * priority, the primary source line, the package and the affected lines of the bug.
+ * The attributes of the FindBugs cloud are not stored, the bean only records that
+ * one of them is present.
  *
  * @author Ulli Hafner
  */
@@ -15,6 +25,12 @@ public class XmlBugInstance {
     private String type;
     private String category;
 
+    private int priority;
+    private String packageName;
+    private SourceLineAnnotation primarySourceLine;
+    private final List<LineRange> lineRanges = new ArrayList<LineRange>();
+    private boolean hasCloudData;
+
     public String getInstanceHash() {
         return instanceHash;
     }
@@ -47,4 +63,59 @@ public class XmlBugInstance {
         this.category = category;
     }
 
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(final int priority) {
+        this.priority = priority;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(final String packageName) {
+        this.packageName = packageName;
+    }
+
+    public SourceLineAnnotation getPrimarySourceLine() {
+        return primarySourceLine;
+    }
+
+    public void setPrimarySourceLine(final SourceLineAnnotation primarySourceLine) {
+        this.primarySourceLine = primarySourceLine;
+    }
+
+    public List<LineRange> getLineRanges() {
+        return lineRanges;
+    }
+
+    public void addLineRange(final LineRange lineRange) {
+        lineRanges.add(lineRange);
+    }
+
+    public boolean hasCloudData() {
+        return hasCloudData;
+    }
+
+    public void setFirstSeen(final String firstSeen) {
+        hasCloudData = true;
+    }
+
+    public void setReviews(final String reviews) {
+        hasCloudData = true;
+    }
+
+    public void setConsensus(final String consensus) {
+        hasCloudData = true;
+    }
+
+    public void setNotAProblem(final String notAProblem) {
+        hasCloudData = true;
+    }
+
+    public void setAgeInDays(final String ageInDays) {
+        hasCloudData = true;
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Renders the FindBugs warnings table page by page. The rows of a page are requested as JSON
+ * from the table URL of the tab, the message of a warning is requested when its row is expanded.
+ * The message is part of the FindBugs report, so it is rendered as text.
+ * The description of the bug pattern is requested by type, so each description is transferred
+ * only once (the responses are cached by the browser as well).
+ */
+function FindBugsWarningsTable(table) {
+  var self = this;
+  var tableUrl = table.getAttribute("data-table-url");
+  var messageUrl = table.getAttribute("data-message-url");
+  var descriptionUrl = table.getAttribute("data-description-url");
+  var descriptions = {};
+  var columns = table.getAttribute("data-columns").split(",");
+  var body = table.getElementsByTagName("tbody")[0];
+  var pager = document.getElementById(table.id + "-pager");
+  var state = {page: 0, sort: "rank", descending: false};
+
+  function get(url, callback) {
+    var request = new XMLHttpRequest();
+    request.open("GET", url, true);
+    request.onreadystatechange = function () {
+      if (request.readyState === 4 && request.status === 200) {
+        callback(request.responseText);
+      }
+    };
+    request.send(null);
+  }
+
+  function link(text, href) {
+    var element = document.createElement(href ? "a" : "span");
+    if (href) {
+      element.setAttribute("href", href);
+    }
+    element.appendChild(document.createTextNode(text === undefined || text === null ? "" : String(text)));
+    return element;
+  }
+
+  function cell(row, content) {
+    var td = document.createElement("td");
+    td.className = "pane";
+    td.appendChild(content);
+    row.appendChild(td);
+  }
+
+  function toggleMessage(row, warning) {
+    var next = row.nextSibling;
+    if (next && next.getAttribute("data-message-of") === String(warning.key)) {
+      body.removeChild(next);
+      return;
+    }
+    var details = document.createElement("tr");
+    details.setAttribute("data-message-of", String(warning.key));
+    var td = document.createElement("td");
+    td.className = "pane";
+    td.colSpan = columns.length + 1;
+    details.appendChild(td);
+    body.insertBefore(details, row.nextSibling);
+    var message = document.createElement("div");
+    var description = document.createElement("div");
+    td.appendChild(message);
+    td.appendChild(description);
+    get(messageUrl + "?key=" + encodeURIComponent(warning.key), function (text) {
+      message.textContent = JSON.parse(text).message;
+    });
+    // the descriptions of the bug patterns are bundled with the plug-in and contain HTML
+    getDescription(warning.type, function (text) {
+      description.innerHTML = text;
+    });
+  }
+
+  function getDescription(type, callback) {
+    if (descriptions.hasOwnProperty(type)) {
+      callback(descriptions[type]);
+      return;
+    }
+    get(descriptionUrl + "?type=" + encodeURIComponent(type), function (text) {
+      descriptions[type] = text;
+      callback(text);
+    });
+  }
+
+  function addRow(warning) {
+    var row = document.createElement("tr");
+    var toggle = link("+", "#");
+    toggle.onclick = function () {
+      toggleMessage(row, warning);
+      return false;
+    };
+    cell(row, toggle);
+    for (var i = 0; i < columns.length; i++) {
+      var column = columns[i];
+      if (column === "file") {
+        cell(row, link(warning.file + ":" + warning.line, warning.sourceUrl));
+      }
+      else if (column === "module" || column === "package") {
+        cell(row, link(warning[column], warning[column + "Url"]));
+      }
+      else {
+        cell(row, link(warning[column]));
+      }
+    }
+    body.appendChild(row);
+  }
+
+  function renderPager(total, size) {
+    pager.innerHTML = "";
+    var pages = Math.max(1, Math.ceil(total / size));
+    var previous = link("«", state.page > 0 ? "#" : null);
+    previous.onclick = function () {
+      self.load(state.page - 1);
+      return false;
+    };
+    var next = link("»", state.page + 1 < pages ? "#" : null);
+    next.onclick = function () {
+      self.load(state.page + 1);
+      return false;
+    };
+    pager.appendChild(previous);
+    pager.appendChild(document.createTextNode(" " + (state.page + 1) + " / " + pages + " (" + total + ") "));
+    pager.appendChild(next);
+  }
+
+  this.load = function (page) {
+    state.page = page;
+    var url = tableUrl + "?page=" + page + "&sort=" + state.sort + "&descending=" + state.descending;
+    get(url, function (text) {
+      var result = JSON.parse(text);
+      while (body.firstChild) {
+        body.removeChild(body.firstChild);
+      }
+      for (var i = 0; i < result.warnings.length; i++) {
+        addRow(result.warnings[i]);
+      }
+      renderPager(result.total, result.size);
+    });
+  };
+
+  var headers = table.getElementsByTagName("thead")[0].getElementsByTagName("a");
+  for (var i = 0; i < headers.length; i++) {
+    headers[i].onclick = function () {
+      var sort = this.getAttribute("data-sort");
+      state.descending = state.sort === sort ? !state.descending : false;
+      state.sort = sort;
+      self.load(0);
+      return false;
+    };
+  }
+  this.load(0);
+}
@@ -0,0 +1,107 @@
+package hudson.plugins.findbugs;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Tests the class {@link CompressedXmlFile}.
+ *
+ * @author Ulli Hafner
+ */
+public class CompressedXmlFileTest {
+    private static final String[] VALUES = {"NP_NULL_ON_SOME_PATH", "CORRECTNESS", "NP_NULL_ON_SOME_PATH"};
+
+    /** Temporary folder for the persisted files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(); // NOPMD
+
+    /**
+     * Verifies that a compressed file is detected and read.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldReadCompressedFile() throws IOException {
+        File file = new File(folder.getRoot(), "findbugs-warnings.xml.gz");
+        CompressedXmlFile xmlFile = new CompressedXmlFile(new XStream(), file);
+
+        assertFalse("File does not exist yet", xmlFile.isCompressed());
+        xmlFile.write(VALUES);
+
+        assertTrue("File is not compressed", xmlFile.isCompressed());
+        assertArrayEquals("Wrong content", VALUES, (String[])xmlFile.read());
+        assertFalse("Temporary file not removed", new File(folder.getRoot(), "findbugs-warnings.xml.gz.tmp").exists());
+    }
+
+    /**
+     * Verifies that an existing file is replaced by the written file.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldReplaceExistingFile() throws IOException {
+        File file = folder.newFile("findbugs-warnings.xml.gz");
+        FileUtils.writeStringToFile(file, "previous", "UTF-8");
+
+        CompressedXmlFile xmlFile = new CompressedXmlFile(new XStream(), file);
+        xmlFile.write(VALUES);
+
+        assertArrayEquals("Wrong content", VALUES, (String[])xmlFile.read());
+    }
+
+    /**
+     * Verifies that a file that has been written without compression is read as well.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldReadUncompressedFile() throws IOException {
+        XStream xstream = new XStream();
+        File file = folder.newFile("findbugs-warnings.xml");
+        FileUtils.writeStringToFile(file, "<?xml version='1.0' encoding='UTF-8'?>\n" + xstream.toXML(VALUES), "UTF-8");
+
+        CompressedXmlFile xmlFile = new CompressedXmlFile(xstream, file);
+
+        assertFalse("File is compressed", xmlFile.isCompressed());
+        assertArrayEquals("Wrong content", VALUES, (String[])xmlFile.read());
+    }
+
+    /**
+     * Verifies that documents written to a stream (e.g., by an agent) can be read in both formats.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldReadDocumentsWrittenToStream() throws IOException {
+        XStream xstream = new XStream();
+        for (boolean isCompressed : new boolean[] {true, false}) {
+            File file = new File(folder.getRoot(), "findbugs-warnings-" + isCompressed + ".xml");
+            OutputStream stream = new FileOutputStream(file);
+            try {
+                CompressedXmlFile.write(xstream, VALUES, stream, isCompressed);
+            }
+            finally {
+                stream.close();
+            }
+
+            CompressedXmlFile xmlFile = new CompressedXmlFile(xstream, file);
+            assertEquals("Wrong compression", isCompressed, xmlFile.isCompressed());
+            assertArrayEquals("Wrong content", VALUES, (String[])xmlFile.read());
+        }
+    }
+}
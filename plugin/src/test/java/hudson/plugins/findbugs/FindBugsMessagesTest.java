@@ -99,6 +99,31 @@ public class FindBugsMessagesTest {
         }
     }
 
+    /**
+     * Verifies that the descriptions that are read on demand using the index are the same as the descriptions
+     * that are parsed with the digester.
+     *
+     * @throws SAXException
+     *             if we can't read the file
+     * @throws IOException
+     *             if we can't read the file
+     */
+    @Test
+    public void readIndexedMessages() throws IOException, SAXException {
+        InputStream file = FindBugsMessages.class.getResourceAsStream("find-sec-bugs-messages.xml");
+        try {
+            for (Pattern pattern : FindBugsMessages.getInstance().parse(file)) {
+                assertEquals(WRONG_WARNING_MESSAGE, pattern.getDescription(),
+                        FindBugsMessages.getInstance().getMessage(pattern.getType(), Locale.ENGLISH));
+                assertEquals(WRONG_WARNING_MESSAGE, pattern.getShortDescription(),
+                        FindBugsMessages.getInstance().getShortMessage(pattern.getType(), Locale.ENGLISH));
+            }
+        }
+        finally {
+            IOUtils.closeQuietly(file);
+        }
+    }
+
     /**
      * Checks that a warning message of each file is correctly parsed.
      */
@@ -119,4 +144,39 @@ public class FindBugsMessagesTest {
         assertTrue(WRONG_WARNING_MESSAGE, FindBugsMessages.getInstance().getShortMessage(NP_STORE_INTO_NONNULL_FIELD, Locale.FRANCE).contains("Stocke une valeur null dans"));
         assertTrue(WRONG_WARNING_MESSAGE, FindBugsMessages.getInstance().getMessage(NP_STORE_INTO_NONNULL_FIELD, Locale.FRANCE).contains("Une valeur qui pourrait"));
     }
+
+    /**
+     * Checks that bug patterns without translation use the default messages.
+     */
+    @Test
+    public void useDefaultMessagesIfTranslationIsMissing() {
+        String type = "AT_OPERATION_SEQUENCE_ON_CONCURRENT_ABSTRACTION";
+        assertEquals(WRONG_WARNING_MESSAGE, FindBugsMessages.getInstance().getShortMessage(type, Locale.ENGLISH),
+                FindBugsMessages.getInstance().getShortMessage(type, Locale.FRANCE));
+        assertEquals(WRONG_WARNING_MESSAGE, FindBugsMessages.getInstance().getMessage(type, Locale.ENGLISH),
+                FindBugsMessages.getInstance().getMessage(type, Locale.FRANCE));
+    }
+
+    /**
+     * Checks that the loading statistics are recorded for each loaded messages file.
+     */
+    @Test
+    public void recordStatistics() {
+        FindBugsMessages.getInstance().getShortMessage(NP_STORE_INTO_NONNULL_FIELD, Locale.JAPANESE);
+
+        int defaultFiles = 0;
+        boolean isJapaneseLoaded = false;
+        for (FindBugsMessages.Statistics statistics : FindBugsMessages.getInstance().getStatistics()) {
+            assertTrue("No patterns in " + statistics, statistics.size() > 0);
+            assertTrue("No memory in " + statistics, statistics.getMemoryFootprint() > 0);
+            if (MessageBundle.DEFAULT_LANGUAGE.equals(statistics.getLanguage())) {
+                defaultFiles++;
+            }
+            if ("ja".equals(statistics.getLanguage())) {
+                isJapaneseLoaded = true;
+            }
+        }
+        assertEquals("Wrong number of default messages files", 3, defaultFiles);
+        assertTrue("Japanese messages not loaded", isJapaneseLoaded);
+    }
 }
@@ -0,0 +1,82 @@
+package hudson.plugins.findbugs;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import hudson.model.Run;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.Priority;
+import hudson.plugins.analysis.views.DetailFactory;
+import hudson.plugins.findbugs.FindBugsTabDetail.SortKey;
+import hudson.plugins.findbugs.parser.Bug;
+
+/**
+ * Tests the class {@link FindBugsTabDetail}.
+ *
+ * @author Ulli Hafner
+ */
+public class FindBugsTabDetailTest {
+    /**
+     * Verifies the server side sorting of the warnings table.
+     */
+    @Test
+    public void shouldSortWarnings() {
+        Bug unranked = createBug(Priority.HIGH, "A.java", "TYPE_C", 0);
+        Bug scariest = createBug(Priority.LOW, "B.java", "TYPE_B", 1);
+        Bug scary = createBug(Priority.NORMAL, "C.java", "TYPE_A", 5);
+
+        FindBugsTabDetail detail = new FindBugsTabDetail(mock(Run.class), mock(DetailFactory.class),
+                Arrays.<FileAnnotation>asList(unranked, scariest, scary), "warnings", "UTF-8");
+
+        verifyOrder(detail.getSortedWarnings(SortKey.RANK, false), scariest, scary, unranked);
+        verifyOrder(detail.getSortedWarnings(SortKey.RANK, true), unranked, scary, scariest);
+        verifyOrder(detail.getSortedWarnings(SortKey.PRIORITY, false), unranked, scary, scariest);
+        verifyOrder(detail.getSortedWarnings(SortKey.TYPE, false), scary, scariest, unranked);
+        verifyOrder(detail.getSortedWarnings(SortKey.FILE, false), unranked, scariest, scary);
+        assertEquals("Wrong default sort key", SortKey.RANK, SortKey.fromString("unknown"));
+    }
+
+    /**
+     * Verifies that warnings are found by their keys.
+     */
+    @Test
+    public void shouldFindWarningsByKey() {
+        Bug first = createBug(Priority.HIGH, "A.java", "TYPE_A", 1);
+        Bug second = createBug(Priority.LOW, "B.java", "TYPE_B", 2);
+
+        FindBugsTabDetail detail = new FindBugsTabDetail(mock(Run.class), mock(DetailFactory.class),
+                Arrays.<FileAnnotation>asList(first, second), "warnings", "UTF-8");
+
+        assertSame("Wrong warning", second, detail.getWarning(second.getKey()));
+        assertNull("Warning found", detail.getWarning(-1));
+    }
+
+    /**
+     * Verifies that pages beyond the last warning are empty, even if the index of the first
+     * warning exceeds the range of an integer.
+     */
+    @Test
+    public void shouldClampPages() {
+        assertEquals("Wrong start", 200, FindBugsTabDetail.getPageStart(2, 100, 250));
+        assertEquals("Wrong start", 250, FindBugsTabDetail.getPageStart(3, 100, 250));
+        assertEquals("Wrong start", 250, FindBugsTabDetail.getPageStart(Integer.MAX_VALUE, 1000, 250));
+        assertEquals("Wrong start", 250, FindBugsTabDetail.getPageStart(Integer.MAX_VALUE + 1L, 1000, 250));
+    }
+
+    private void verifyOrder(final List<FileAnnotation> warnings, final Bug... expected) {
+        assertEquals("Wrong order", Arrays.asList(expected), warnings);
+    }
+
+    private Bug createBug(final Priority priority, final String fileName, final String type, final int rank) {
+        Bug bug = new Bug(priority, "Message", "CORRECTNESS", type, 1, 1);
+        bug.setFileName(fileName);
+        bug.setRank(rank);
+        bug.setInstanceHash(fileName);
+        return bug;
+    }
+}
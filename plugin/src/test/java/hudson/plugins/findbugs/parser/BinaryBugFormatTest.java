@@ -0,0 +1,166 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.LineRange;
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Tests the class {@link BinaryBugFormat}.
+ *
+ * @author Ulli Hafner
+ */
+public class BinaryBugFormatTest {
+    private static final String MESSAGE = "Message";
+    private static final String CATEGORY = "CORRECTNESS";
+    private static final String HEX_HASH = "0123456789abcdef0123456789abcdef";
+    private static final String PLAIN_HASH = "not-a-hex-hash";
+
+    /** Temporary folder for the persisted warnings. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(); // NOPMD
+
+    /**
+     * Writes bugs with all properties set and verifies that the same bugs are read back.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldReadWrittenBugs() throws IOException {
+        Bug first = createBug(Priority.HIGH, "NP_NULL_ON_SOME_PATH", 10, 12, HEX_HASH);
+        first.addLineRange(new LineRange(20, 25));
+        first.setInCloud(true);
+        first.setShouldBeInCloud(true);
+        first.setNotAProblem(true);
+        first.setAgeInDays(3);
+        first.setReviewCount(2);
+        first.setFirstSeen(1234567890L);
+        first.setDetailsUrlTemplate("http://details/%s");
+        first.setAuthorName("Ulli Hafner");
+        first.setAuthorEmail("ullrich.hafner@gmail.com");
+        first.setCommitId("2d8b1a0c");
+        first.setColumnPosition(4, 17);
+        Bug second = createBug(Priority.LOW, "SE_BAD_FIELD", 5, 5, PLAIN_HASH);
+        Bug third = createBug(Priority.NORMAL, "SE_BAD_FIELD", 0, 0, null);
+
+        File file = folder.newFile("findbugs-warnings.bin");
+        BinaryBugFormat.write(Arrays.asList(first, second, third), file);
+        List<FileAnnotation> bugs = BinaryBugFormat.read(file);
+
+        assertEquals("Wrong number of bugs", 3, bugs.size());
+        verifyBug(first, bugs.get(0));
+        verifyBug(second, bugs.get(1));
+        verifyBug(third, bugs.get(2));
+
+        Bug read = (Bug)bugs.get(0);
+        assertEquals("Wrong hash", HexishString.of(HEX_HASH), read.getHash());
+        assertEquals("Wrong line ranges", new ArrayList<LineRange>(first.getLineRanges()),
+                new ArrayList<LineRange>(read.getLineRanges()));
+        assertTrue("Wrong cloud flag", read.isInCloud());
+        assertTrue("Wrong cloud flag", read.isShouldBeInCloud());
+        assertTrue("Wrong cloud flag", read.isNotAProblem());
+        assertEquals("Wrong age", 3, read.getAgeInDays());
+        assertEquals("Wrong review count", 2, read.getReviewCount());
+        assertEquals("Wrong first seen", 1234567890L, read.getFirstSeen());
+        assertEquals("Wrong author", "Ulli Hafner", read.getAuthorName());
+        assertEquals("Wrong email", "ullrich.hafner@gmail.com", read.getAuthorEmail());
+        assertEquals("Wrong commit", "2d8b1a0c", read.getCommitId());
+        assertEquals("Wrong column start", 4, read.getColumnStart());
+        assertEquals("Wrong column end", 17, read.getColumnEnd());
+        assertNull("Wrong author", ((Bug)bugs.get(1)).getAuthorName());
+        assertNull("Wrong commit", ((Bug)bugs.get(1)).getCommitId());
+        assertEquals("Wrong hash", HexishString.of(PLAIN_HASH), ((Bug)bugs.get(1)).getHash());
+        assertNull("Wrong hash", ((Bug)bugs.get(2)).getHash());
+    }
+
+    /**
+     * Verifies that single bugs of a mapped file can be accessed without decoding the other bugs.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldDecodeMappedBugsOnDemand() throws IOException {
+        Bug first = createBug(Priority.HIGH, "NP_NULL_ON_SOME_PATH", 10, 12, HEX_HASH);
+        Bug second = createBug(Priority.LOW, "SE_BAD_FIELD", 5, 5, PLAIN_HASH);
+
+        File file = folder.newFile("findbugs-warnings.bin");
+        BinaryBugFormat.write(Arrays.asList(first, second), file);
+        BinaryBugFormat.MappedBugs bugs = BinaryBugFormat.map(file);
+
+        assertEquals("Wrong number of bugs", 2, bugs.size());
+        assertEquals("Wrong key", second.getKey(), bugs.getKey(1));
+        assertEquals("Wrong priority", Priority.LOW, bugs.getPriority(1));
+        verifyBug(second, bugs.findBug(second.getKey()));
+        verifyBug(first, bugs.get(0));
+        assertNull("Bug found", bugs.findBug(-1));
+    }
+
+    /**
+     * Verifies that each bug of a mapped file is found by its key, regardless of the order of the keys.
+     *
+     * @throws IOException
+     *             if the file could not be written
+     */
+    @Test
+    public void shouldFindAllBugsByKey() throws IOException {
+        List<Bug> written = new ArrayList<Bug>();
+        for (int line = 1; line <= 100; line++) {
+            written.add(createBug(Priority.NORMAL, "SE_BAD_FIELD", line, line, PLAIN_HASH + line));
+        }
+        Collections.reverse(written);
+
+        File file = folder.newFile("findbugs-warnings.bin");
+        BinaryBugFormat.write(written, file);
+        BinaryBugFormat.MappedBugs bugs = BinaryBugFormat.map(file);
+
+        for (Bug bug : written) {
+            verifyBug(bug, bugs.findBug(bug.getKey()));
+        }
+    }
+
+    private Bug createBug(final Priority priority, final String type, final int start, final int end,
+            final String hash) {
+        Bug bug = new Bug(priority, MESSAGE, CATEGORY, type, start, end, "Tooltip");
+        bug.setFileName("/path/to/" + type + ".java");
+        bug.setPackageName("edu.hm");
+        bug.setModuleName("module");
+        bug.setPathName("/path");
+        bug.setRank(7);
+        bug.setContextHashCode(42L);
+        bug.setBuild(11);
+        bug.setInstanceHash(hash);
+        return bug;
+    }
+
+    private void verifyBug(final Bug expected, final FileAnnotation actual) {
+        assertEquals("Wrong key", expected.getKey(), actual.getKey());
+        assertEquals("Wrong priority", expected.getPriority(), actual.getPriority());
+        assertEquals("Wrong message", expected.getPlainMessage(), ((Bug)actual).getPlainMessage());
+        assertEquals("Wrong tooltip", expected.getPlainToolTip(), ((Bug)actual).getPlainToolTip());
+        assertEquals("Wrong type", expected.getType(), actual.getType());
+        assertEquals("Wrong category", expected.getCategory(), actual.getCategory());
+        assertEquals("Wrong file name", expected.getFileName(), actual.getFileName());
+        assertEquals("Wrong package", expected.getPackageName(), actual.getPackageName());
+        assertEquals("Wrong module", expected.getModuleName(), actual.getModuleName());
+        assertEquals("Wrong path", expected.getPathName(), actual.getPathName());
+        assertEquals("Wrong origin", expected.getOrigin(), actual.getOrigin());
+        assertEquals("Wrong rank", expected.getRank(), ((Bug)actual).getRank());
+        assertEquals("Wrong context hash", expected.getContextHashCode(), actual.getContextHashCode());
+        assertEquals("Wrong build", expected.getBuild(), actual.getBuild());
+        assertEquals("Wrong primary line", expected.getPrimaryLineNumber(), actual.getPrimaryLineNumber());
+    }
+}
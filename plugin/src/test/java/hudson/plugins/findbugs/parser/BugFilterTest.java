@@ -0,0 +1,58 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Tests the class {@link BugFilter}.
+ *
+ * @author Ulli Hafner
+ */
+public class BugFilterTest {
+    private static final String STYLE = "STYLE";
+    private static final String CORRECTNESS = "CORRECTNESS";
+    private static final String NP_TYPE = "NP_NULL_ON_SOME_PATH";
+    private static final String SE_TYPE = "SE_BAD_FIELD";
+
+    /**
+     * Verifies that the default filter accepts all warnings.
+     */
+    @Test
+    public void shouldAcceptAllWarnings() {
+        assertTrue("Warning skipped", BugFilter.ALL.accepts(Priority.LOW, 20, STYLE, NP_TYPE));
+        assertTrue("Warning skipped", BugFilter.ALL.accepts(Priority.HIGH, 1, CORRECTNESS, SE_TYPE));
+    }
+
+    /**
+     * Verifies the rank and priority filter.
+     */
+    @Test
+    public void shouldFilterByRankAndPriority() {
+        BugFilter filter = new BugFilter(14, "normal", null, null, null, null);
+
+        assertTrue("Warning skipped", filter.accepts(Priority.HIGH, 14, STYLE, NP_TYPE));
+        assertTrue("Warning skipped", filter.accepts(Priority.NORMAL, 1, STYLE, NP_TYPE));
+        assertFalse("Warning accepted", filter.accepts(Priority.HIGH, 15, STYLE, NP_TYPE));
+        assertFalse("Warning accepted", filter.accepts(Priority.LOW, 1, STYLE, NP_TYPE));
+    }
+
+    /**
+     * Verifies the category and bug type filters.
+     */
+    @Test
+    public void shouldFilterByCategoryAndType() {
+        BugFilter filter = new BugFilter(0, "", "correctness, style", STYLE, null, " " + SE_TYPE);
+
+        assertTrue("Warning skipped", filter.accepts(Priority.LOW, 1, CORRECTNESS, NP_TYPE));
+        assertFalse("Warning accepted", filter.accepts(Priority.LOW, 1, STYLE, NP_TYPE));
+        assertFalse("Warning accepted", filter.accepts(Priority.LOW, 1, "PERFORMANCE", NP_TYPE));
+        assertFalse("Warning accepted", filter.accepts(Priority.LOW, 1, CORRECTNESS, SE_TYPE));
+
+        BugFilter types = new BugFilter(0, null, null, null, NP_TYPE, null);
+        assertTrue("Warning skipped", types.accepts(Priority.LOW, 1, CORRECTNESS, NP_TYPE));
+        assertFalse("Warning accepted", types.accepts(Priority.LOW, 1, CORRECTNESS, SE_TYPE));
+    }
+}
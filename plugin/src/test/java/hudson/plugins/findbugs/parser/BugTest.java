@@ -0,0 +1,117 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+import com.thoughtworks.xstream.XStream;
+
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Tests the class {@link Bug}.
+ *
+ * @author Ulli Hafner
+ */
+public class BugTest {
+    private static final String MESSAGE = "Message";
+
+    /**
+     * Verifies that the message of a bug without cloud information is not changed.
+     */
+    @Test
+    public void shouldReturnPlainMessageWithoutCloud() {
+        Bug bug = new Bug(Priority.HIGH, MESSAGE, "CORRECTNESS", "NP_NULL_ON_SOME_PATH", 1, 1);
+
+        assertEquals("Wrong message", MESSAGE, bug.getMessage());
+    }
+
+    /**
+     * Verifies that the rendered cloud information is cached and updated if the cloud properties change.
+     */
+    @Test
+    public void shouldCacheRenderedCloudInformation() {
+        Bug bug = new Bug(Priority.HIGH, MESSAGE, "CORRECTNESS", "NP_NULL_ON_SOME_PATH", 1, 1);
+        bug.setInCloud(true);
+
+        String message = bug.getMessage();
+        assertTrue("Wrong message", message.startsWith(MESSAGE));
+        assertSame("Message not cached", message, bug.getMessage());
+
+        bug.setReviewCount(2);
+        String reviewed = bug.getMessage();
+        assertNotSame("Message not rendered again", message, reviewed);
+        assertTrue("Reviews not shown", reviewed.length() > message.length());
+    }
+
+    /**
+     * Verifies that the element ids of the cloud information are derived from the key of the bug.
+     */
+    @Test
+    public void shouldUseDeterministicElementIds() {
+        Bug bug = new Bug(Priority.HIGH, MESSAGE, "CORRECTNESS", "NP_NULL_ON_SOME_PATH", 1, 1);
+        bug.setInstanceHash("0123456789abcdef0123456789abcdef");
+        bug.setDetailsUrlTemplate("http://details/%s");
+
+        String message = bug.getMessage();
+        assertTrue("Wrong id", message.contains("fb-comments-" + bug.getKey() + "'"));
+        assertTrue("Wrong id", message.contains("fb-arrow-" + bug.getKey() + "'"));
+        assertTrue("Wrong URL", message.contains("http://details/0123456789abcdef0123456789abcdef"));
+    }
+
+    /**
+     * Verifies that the strings with a low cardinality of bugs that are loaded separately are shared.
+     *
+     * @throws Exception
+     *             if the bugs could not be serialized
+     */
+    @Test
+    public void shouldShareStringsOfLoadedBugs() throws Exception {
+        Bug first = copy(createBug());
+        Bug second = copy(createBug());
+
+        assertSame("Module not shared", first.getModuleName(), second.getModuleName());
+        assertSame("Package not shared", first.getPackageName(), second.getPackageName());
+        assertEquals("Wrong type", "NP_NULL_ON_SOME_PATH", second.getType());
+    }
+
+    /**
+     * Verifies that the type and category of bugs that are read by XStream are shared.
+     */
+    @Test
+    public void shouldShareTypesOfBugsReadByXStream() {
+        XStream xstream = new XStream();
+        Bug.registerConverters(xstream);
+        String xml = xstream.toXML(createBug());
+
+        Bug first = (Bug)xstream.fromXML(xml);
+        Bug second = (Bug)xstream.fromXML(xml);
+
+        assertSame("Type not shared", first.getType(), second.getType());
+        assertSame("Category not shared", first.getCategory(), second.getCategory());
+        assertSame("Module not shared", first.getModuleName(), second.getModuleName());
+        assertEquals("Wrong type", "NP_NULL_ON_SOME_PATH", second.getType());
+    }
+
+    private Bug createBug() {
+        Bug bug = new Bug(Priority.HIGH, MESSAGE, "CORRECTNESS", "NP_NULL_ON_SOME_PATH", 1, 1);
+        bug.setModuleName("module");
+        bug.setPackageName("edu.hm");
+        return bug;
+    }
+
+    private Bug copy(final Bug bug) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(bug);
+        output.close();
+
+        return (Bug)new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+}
@@ -0,0 +1,100 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import hudson.plugins.analysis.core.ParserResult;
+import hudson.plugins.analysis.util.model.FileAnnotation;
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Tests the class {@link EncodedParserResult}.
+ *
+ * @author Ulli Hafner
+ */
+public class EncodedParserResultTest {
+    private static final String MODULE = "module";
+
+    /**
+     * Transfers an encoded result using Java serialization and verifies that the bugs, modules,
+     * and errors are decoded.
+     *
+     * @throws Exception
+     *             if the result could not be transferred
+     */
+    @Test
+    public void shouldDecodeTransferredResult() throws Exception {
+        Bug first = createBug("NP_NULL_ON_SOME_PATH", 10);
+        Bug second = createBug("SE_BAD_FIELD", 20);
+
+        ParserResult result = new ParserResult();
+        result.addModule(MODULE);
+        result.addAnnotations(Arrays.<FileAnnotation>asList(first, second));
+        result.addErrorMessage(MODULE, "Error");
+
+        ParserResult decoded = transfer(new EncodedParserResult(result)).decode();
+
+        assertEquals("Wrong number of warnings", 2, decoded.getNumberOfAnnotations());
+        Set<Long> keys = new HashSet<Long>();
+        for (FileAnnotation annotation : decoded.getAnnotations()) {
+            keys.add(annotation.getKey());
+            assertEquals("Wrong module", MODULE, annotation.getModuleName());
+        }
+        assertEquals("Wrong keys", new HashSet<Long>(Arrays.asList(first.getKey(), second.getKey())), keys);
+        assertEquals("Wrong modules", result.getModules(), decoded.getModules());
+        assertEquals("Wrong errors", result.getErrorMessages(), decoded.getErrorMessages());
+    }
+
+    /**
+     * Verifies that the errors keep their modules and that the file names of the decoded bugs are
+     * not expanded, since the decoded result has no workspace.
+     *
+     * @throws Exception
+     *             if the result could not be transferred
+     */
+    @Test
+    public void shouldKeepModulesOfErrorsAndFileNames() throws Exception {
+        Bug bug = createBug("NP_NULL_ON_SOME_PATH", 10);
+
+        ParserResult result = new ParserResult();
+        result.addAnnotations(Arrays.<FileAnnotation>asList(bug));
+        List<ErrorMessage> errors = Arrays.asList(new ErrorMessage(MODULE, "Error"), new ErrorMessage("No files"));
+        for (ErrorMessage error : errors) {
+            error.addTo(result);
+        }
+
+        ParserResult decoded = transfer(new EncodedParserResult(result, errors, true)).decode();
+
+        assertEquals("Wrong errors", result.getErrorMessages(), decoded.getErrorMessages());
+        assertEquals("Wrong file name", bug.getFileName(), decoded.getAnnotations().iterator().next().getFileName());
+    }
+
+    private EncodedParserResult transfer(final EncodedParserResult result) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(result);
+        output.close();
+
+        return (EncodedParserResult)new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+    private Bug createBug(final String type, final int line) {
+        Bug bug = new Bug(Priority.HIGH, "Message", "CORRECTNESS", type, line, line);
+        bug.setFileName("/path/to/" + type + ".java");
+        bug.setPackageName("edu.hm");
+        bug.setModuleName(MODULE);
+        bug.setInstanceHash(type);
+        return bug;
+    }
+}
@@ -10,6 +10,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.dom4j.DocumentException;
@@ -50,12 +54,7 @@ public class FindBugsParserTest extends AbstractEnglishLocaleTest {
     }
 
     private MavenModule parseFile(final String fileName, final boolean isRankActivated, final String excludePattern, final String includePattern) throws IOException, SAXException, DocumentException {
-        Collection<FileAnnotation> annotations = new FindBugsParser(isRankActivated, excludePattern, includePattern).parse(new FindBugsParser.InputStreamProvider() {
-            @Override
-            public InputStream getInputStream() throws IOException {
-                return FindBugsParserTest.class.getResourceAsStream(fileName);
-            }
-        }, new ArrayList<String>(), fileName);
+        Collection<FileAnnotation> annotations = parseAnnotations(new FindBugsParser(isRankActivated, excludePattern, includePattern), fileName);
         MavenModule module = new MavenModule(fileName);
         if (!annotations.isEmpty()) {
             module.setName(annotations.iterator().next().getModuleName());
@@ -65,6 +64,15 @@ public class FindBugsParserTest extends AbstractEnglishLocaleTest {
         return module;
     }
 
+    private Collection<FileAnnotation> parseAnnotations(final FindBugsParser parser, final String fileName) throws IOException, SAXException, DocumentException {
+        return parser.parse(new FindBugsParser.InputStreamProvider() {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return FindBugsParserTest.class.getResourceAsStream(fileName);
+            }
+        }, new ArrayList<String>(), fileName);
+    }
+
     /**
      * Parses fb-contrib messages.
      *
@@ -97,6 +105,23 @@ public class FindBugsParserTest extends AbstractEnglishLocaleTest {
         assertEquals("Wrong number of warnings", 68, module.getNumberOfAnnotations());
     }
 
+    /**
+     * Verifies that a warning is reported only once if several include patterns match its file.
+     *
+     * @throws IOException
+     *             in case of an error
+     * @throws SAXException
+     *             in case of an error
+     * @throws DocumentException
+     *             in case of an error
+     */
+    @Test
+    public void issue7238withOverlappingIncludePatterns() throws IOException, SAXException, DocumentException {
+        Collection<FileAnnotation> annotations = parseAnnotations(new FindBugsParser(false, null,
+                "*gti/plc/*,*"), "issue7238.xml");
+        assertEquals("Wrong number of warnings", 1820, annotations.size());
+    }
+
     /**
      * Parses fb-contrib messages.
      *
@@ -185,6 +210,37 @@ public class FindBugsParserTest extends AbstractEnglishLocaleTest {
         }
     }
 
+    /**
+     * Checks whether the pre-parser detects bug instances with FindBugs cloud data.
+     *
+     * @throws IOException
+     *             in case of an error
+     * @throws SAXException
+     *             in case of an error
+     */
+    @Test
+    public void detectCloudData() throws SAXException, IOException {
+        assertFalse("Cloud data found", hasCloudData(FINDBUGS_NATIVE_XML));
+        assertTrue("No cloud data found", hasCloudData("findbugs-with-firstSeen.xml"));
+        assertTrue("No cloud data found", hasCloudData("findbugs-with-reviews.xml"));
+        assertTrue("No cloud data found", hasCloudData("findbugs-with-notAProblem-bug.xml"));
+    }
+
+    private boolean hasCloudData(final String fileName) throws SAXException, IOException {
+        InputStream stream = FindBugsParserTest.class.getResourceAsStream(fileName);
+        try {
+            for (XmlBugInstance bug : new FindBugsParser(false).preParse(stream)) {
+                if (bug.hasCloudData()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
     /**
      * Checks whether we correctly detect a file in FindBugs native format.
      *
@@ -370,6 +426,84 @@ public class FindBugsParserTest extends AbstractEnglishLocaleTest {
         assertEquals("Wrong category: ", "SECURITY", next.getCategory());
     }
 
+    /**
+     * Verifies that the single pass parser creates the same bugs as the FindBugs library.
+     *
+     * @throws SAXException
+     *             in case of an error
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws DocumentException
+     *             the document exception
+     */
+    @Test
+    public void singlePassCreatesSameBugs() throws IOException, SAXException, DocumentException {
+        for (String fileName : new String[] {FINDBUGS_NATIVE_XML, "findbugs-multclass.xml", "issue7238.xml",
+                "findbugs-with-reviews.xml", "findbugs-3rd-party-category.xml", "findbugs-nomessage.xml"}) {
+            for (boolean isRankActivated : new boolean[] {false, true}) {
+                FindBugsParser singlePass = new FindBugsParser(isRankActivated);
+                singlePass.setSinglePassActivated(true);
+
+                assertSameBugs(fileName, parseAnnotations(new FindBugsParser(isRankActivated), fileName),
+                        parseAnnotations(singlePass, fileName));
+            }
+        }
+    }
+
+    /**
+     * Verifies that the same parser instance can be used to parse several files concurrently.
+     *
+     * @throws Exception
+     *             in case of an error
+     */
+    @Test
+    public void parseConcurrently() throws Exception {
+        final FindBugsParser parser = new FindBugsParser(false);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Collection<FileAnnotation>>> results = new ArrayList<Future<Collection<FileAnnotation>>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<Collection<FileAnnotation>>() {
+                    @Override
+                    public Collection<FileAnnotation> call() throws Exception {
+                        return parseAnnotations(parser, "issue7238.xml");
+                    }
+                }));
+            }
+            for (Future<Collection<FileAnnotation>> result : results) {
+                assertEquals("Wrong number of warnings", 1820, result.get().size());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertSameBugs(final String fileName, final Collection<FileAnnotation> expected, final Collection<FileAnnotation> actual) {
+        assertEquals("Wrong number of bugs in " + fileName, expected.size(), actual.size());
+
+        Map<FileAnnotation, FileAnnotation> actualBugs = new HashMap<FileAnnotation, FileAnnotation>();
+        for (FileAnnotation annotation : actual) {
+            actualBugs.put(annotation, annotation);
+        }
+        for (FileAnnotation expectedBug : expected) {
+            Bug expectedAnnotation = (Bug)expectedBug;
+            Bug actualAnnotation = (Bug)actualBugs.get(expectedBug);
+
+            assertNotNull("Bug not found in " + fileName, actualAnnotation);
+            assertEquals("Wrong message in " + fileName, expectedAnnotation.getMessage(), actualAnnotation.getMessage());
+            assertEquals("Wrong file name in " + fileName, expectedAnnotation.getFileName(), actualAnnotation.getFileName());
+            assertEquals("Wrong package in " + fileName, expectedAnnotation.getPackageName(), actualAnnotation.getPackageName());
+            assertEquals("Wrong module in " + fileName, expectedAnnotation.getModuleName(), actualAnnotation.getModuleName());
+            assertEquals("Wrong priority in " + fileName, expectedAnnotation.getPriority(), actualAnnotation.getPriority());
+            assertEquals("Wrong rank in " + fileName, expectedAnnotation.getRank(), actualAnnotation.getRank());
+            assertEquals("Wrong category in " + fileName, expectedAnnotation.getCategory(), actualAnnotation.getCategory());
+            assertEquals("Wrong type in " + fileName, expectedAnnotation.getType(), actualAnnotation.getType());
+            assertEquals("Wrong line ranges in " + fileName,
+                    new ArrayList<LineRange>(expectedAnnotation.getLineRanges()), new ArrayList<LineRange>(actualAnnotation.getLineRanges()));
+        }
+    }
+
     // CHECKSTYLE:OFF
     @SuppressWarnings("PMD.ExcessiveParameterList")
     private void scanNativeFile(final String findbugsFile, final String projectName,
@@ -0,0 +1,115 @@
+package hudson.plugins.findbugs.parser;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks the computation of new warnings of two builds with 100.000 instance hashes each,
+ * where 10 percent of the warnings differ. The variant {@link #newWarningsWithStrings()} hashes
+ * and compares the hex strings, i.e. what {@link HexishString} did before it used the underlying
+ * arrays. Start the benchmark with {@link #main(String[])} from the test class path.
+ *
+ * @author Ulli Hafner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HexishStringBenchmark {
+    private static final int SIZE = 100000;
+    private static final int CHANGED = SIZE / 10;
+
+    private HexishString[] reference;
+    private HexishString[] current;
+
+    /**
+     * Creates the instance hashes of both builds.
+     */
+    @Setup
+    public void createHashes() {
+        Random random = new Random(SIZE);
+        reference = new HexishString[SIZE];
+        current = new HexishString[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            reference[i] = new HexishString(randomHash(random));
+            current[i] = i < CHANGED ? new HexishString(randomHash(random)) : new HexishString(reference[i].toString());
+        }
+    }
+
+    private String randomHash(final Random random) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Hex.encodeHexString(bytes);
+    }
+
+    /**
+     * Computes the new warnings using the hash and equals methods of {@link HexishString}.
+     *
+     * @return the number of new warnings
+     */
+    @Benchmark
+    public int newWarnings() {
+        Set<HexishString> previous = new HashSet<HexishString>();
+        for (HexishString hash : reference) {
+            previous.add(hash);
+        }
+        int count = 0;
+        for (HexishString hash : current) {
+            if (!previous.contains(hash)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the new warnings by hashing and comparing the string representations.
+     *
+     * @return the number of new warnings
+     */
+    @Benchmark
+    public int newWarningsWithStrings() {
+        Set<String> previous = new HashSet<String>();
+        for (HexishString hash : reference) {
+            previous.add(hash.toString());
+        }
+        int count = 0;
+        for (HexishString hash : current) {
+            if (!previous.contains(hash.toString())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs this benchmark.
+     *
+     * @param args
+     *            not used
+     * @throws RunnerException
+     *             if the benchmark fails
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HexishStringBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -19,6 +19,19 @@ public class HexishStringTest {
         verify("1234");
     }
 
+    @Test
+    public void equalsAndHashCode() {
+        for (String s : new String[] {"foo", "1234", "0123456789abcdef0123456789abcdef", "ABCD", ""}) {
+            HexishString h = new HexishString(s);
+            assertEquals(s.hashCode(), h.hashCode());
+            assertEquals(h, new HexishString(s));
+        }
+        assertFalse(new HexishString("1234").equals(new HexishString("12345")));
+        assertFalse(new HexishString("abcd").equals(new HexishString("ABCD")));
+        assertTrue(new HexishString("0123456789abcdef0123456789abcdef").is128Bit());
+        assertFalse(new HexishString("0123456789abcdef").is128Bit());
+    }
+
     private void verify(final String s) {
         assertEquals(s,new HexishString(s).toString());
     }
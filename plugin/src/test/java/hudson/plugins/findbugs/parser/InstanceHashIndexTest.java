@@ -0,0 +1,131 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Tests the class {@link InstanceHashIndex}.
+ *
+ * @author Ulli Hafner
+ */
+public class InstanceHashIndexTest {
+    /** Temporary folder for the persisted index. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(); // NOPMD
+
+    /**
+     * Verifies that new and fixed bugs are found using the index of the reference build.
+     *
+     * @throws IOException
+     *             if the index could not be written
+     */
+    @Test
+    public void shouldFindNewAndFixedBugs() throws IOException {
+        List<Bug> reference = Arrays.asList(createBug("ffee0000000000000000000000000001", 1),
+                createBug("0000000000000000000000000000aaaa", 2), createBug("fixed", 3));
+        List<Bug> current = Arrays.asList(createBug("new", 4), createBug("0000000000000000000000000000aaaa", 2),
+                createBug("ffee0000000000000000000000000001", 1), createBug("bbbb0000000000000000000000000000", 5));
+
+        File file = folder.newFile("findbugs-hashes.bin");
+        InstanceHashIndex.create(reference).write(file);
+        InstanceHashIndex referenceIndex = InstanceHashIndex.read(file);
+
+        assertEquals("Wrong number of bugs", 3, referenceIndex.size());
+        assertEquals("Wrong new bugs", Arrays.asList(current.get(0), current.get(3)), referenceIndex.getNew(current));
+        assertArrayEquals("Wrong fixed bugs", new long[] {reference.get(2).getKey()},
+                referenceIndex.getFixedKeys(current));
+    }
+
+    /**
+     * Verifies that bugs without an instance hash are identified by their properties.
+     */
+    @Test
+    public void shouldDistinguishBugsWithoutInstanceHash() {
+        Bug nullPointer = createBug(null, 1);
+        Bug otherType = new Bug(Priority.HIGH, "Message", "CORRECTNESS", "SE_BAD_FIELD", 1, 1);
+        otherType.setContextHashCode(2);
+        Bug sameProperties = createBug(null, 3);
+
+        InstanceHashIndex index = InstanceHashIndex.create(Arrays.asList(nullPointer, otherType));
+
+        assertEquals("Wrong new bugs", Collections.emptyList(), index.getNew(Arrays.asList(sameProperties)));
+        assertArrayEquals("Wrong fixed bugs", new long[] {otherType.getKey()},
+                index.getFixedKeys(Arrays.asList(sameProperties)));
+    }
+
+    /**
+     * Verifies that bugs with a changed instance hash but the same context hash code are neither
+     * new nor fixed, and that the fixed bugs are returned in the order of the reference build.
+     *
+     * @throws IOException
+     *             if the index could not be written
+     */
+    @Test
+    public void shouldUseContextHashAsFallback() throws IOException {
+        List<Bug> reference = Arrays.asList(createBug("fixed-1", 1), createBug("moved-old", 2),
+                createBug("same", 3), createBug("fixed-2", 4), createBug("fixed-0", 5));
+        List<Bug> current = Arrays.asList(createBug("same", 3), createBug("moved-new", 2), createBug("new", 6));
+
+        File file = folder.newFile("findbugs-hashes.bin");
+        InstanceHashIndex.create(reference).write(file);
+        InstanceHashIndex referenceIndex = InstanceHashIndex.read(file);
+
+        assertTrue("No context hashes", referenceIndex.hasContextHashes());
+        assertEquals("Wrong new bugs", Arrays.asList(current.get(2)), referenceIndex.getNew(current));
+        assertArrayEquals("Wrong fixed bugs", new long[] {reference.get(0).getKey(), reference.get(3).getKey(),
+                reference.get(4).getKey()}, referenceIndex.getFixedKeys(current));
+    }
+
+    /**
+     * Verifies that an index of an older release without context hash codes can still be read.
+     *
+     * @throws IOException
+     *             if the index could not be written
+     */
+    @Test
+    public void shouldReadIndexWithoutContextHashes() throws IOException {
+        File file = folder.newFile("findbugs-hashes.bin");
+        DataOutputStream output = new DataOutputStream(new FileOutputStream(file));
+        try {
+            output.writeInt(0x46424800);
+            output.writeInt(1);
+            output.writeInt(1);
+            output.writeLong(1L);
+            output.writeLong(2L);
+            output.writeInt(0);
+        }
+        finally {
+            output.close();
+        }
+
+        InstanceHashIndex index = InstanceHashIndex.read(file);
+
+        assertEquals("Wrong number of bugs", 1, index.size());
+        assertFalse("Context hashes available", index.hasContextHashes());
+    }
+
+    private Bug createBug(final String hash) {
+        Bug bug = new Bug(Priority.HIGH, "Message", "CORRECTNESS", "NP_NULL_ON_SOME_PATH", 1, 1);
+        bug.setInstanceHash(hash);
+        return bug;
+    }
+
+    private Bug createBug(final String hash, final long contextHashCode) {
+        Bug bug = createBug(hash);
+        bug.setContextHashCode(contextHashCode);
+        return bug;
+    }
+}
@@ -0,0 +1,33 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the class {@link LongPairSet}.
+ *
+ * @author Ulli Hafner
+ */
+public class LongPairSetTest {
+    private static final int SIZE = 10000;
+
+    /**
+     * Verifies that all added values are found, even after the set has grown.
+     */
+    @Test
+    public void shouldContainAddedValues() {
+        LongPairSet set = new LongPairSet(1);
+
+        for (long i = 0; i < SIZE; i++) {
+            assertTrue("Value not added", set.add(i, -i));
+        }
+        assertFalse("Duplicate added", set.add(1, -1));
+        assertEquals("Wrong size", SIZE, set.size());
+
+        for (long i = 0; i < SIZE; i++) {
+            assertTrue("Value not found", set.contains(i, -i));
+            assertFalse("Value found", set.contains(-i, i + 1));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the class {@link SourceIndex}.
+ *
+ * @author Ulli Hafner
+ */
+public class SourceIndexTest {
+    /** Source folders of the test. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Verifies that files are found by package and file name and that the first source folder wins.
+     *
+     * @throws IOException
+     *             if the files could not be created
+     */
+    @Test
+    public void shouldFindFilesInFirstSourceFolder() throws IOException {
+        File main = folder.newFolder("main");
+        File test = folder.newFolder("test");
+        File mainFile = createFile(main, "edu/umd/cs/Main.java");
+        createFile(test, "edu/umd/cs/Main.java");
+        File testFile = createFile(test, "edu/umd/cs/MainTest.java");
+        File defaultPackageFile = createFile(test, "Default.java");
+
+        SourceIndex index = new SourceIndex(Arrays.asList(main.getPath(), test.getPath()));
+
+        assertTrue("Index is not complete", index.isComplete());
+        assertEquals("Wrong number of files", 3, index.size());
+        assertEquals("Wrong file", mainFile.getPath(), index.find("edu.umd.cs", "Main.java"));
+        assertEquals("Wrong file", testFile.getPath(), index.find("edu.umd.cs", "MainTest.java"));
+        assertEquals("Wrong file", defaultPackageFile.getPath(), index.find("", "Default.java"));
+        assertNull("File found", index.find("edu.umd", "Main.java"));
+    }
+
+    /**
+     * Verifies that an index with a source archive is marked as incomplete.
+     *
+     * @throws IOException
+     *             if the files could not be created
+     */
+    @Test
+    public void shouldNotIndexArchives() throws IOException {
+        File archive = folder.newFile("sources.jar");
+
+        SourceIndex index = new SourceIndex(Arrays.asList(archive.getPath(), "does-not-exist"));
+
+        assertFalse("Index is complete", index.isComplete());
+        assertEquals("Wrong number of files", 0, index.size());
+    }
+
+    private File createFile(final File sourceFolder, final String fileName) throws IOException {
+        File file = new File(sourceFolder, fileName);
+        assertTrue("Can't create folder", file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        assertTrue("Can't create file", file.createNewFile());
+        return file;
+    }
+}
@@ -0,0 +1,65 @@
+package hudson.plugins.findbugs.parser;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import hudson.plugins.analysis.util.model.Priority;
+
+/**
+ * Tests the class {@link StringPool}.
+ *
+ * @author Ulli Hafner
+ */
+public class StringPoolTest {
+    private static final String TYPE = "NP_NULL_ON_SOME_PATH";
+
+    /**
+     * Verifies that equal strings are replaced by the first string of the pool.
+     */
+    @Test
+    public void shouldShareEqualStrings() {
+        StringPool pool = new StringPool();
+
+        String first = copy(TYPE);
+        String second = copy(TYPE);
+
+        assertSame("First string not added", first, pool.intern(first));
+        assertSame("Second string not replaced", first, pool.intern(second));
+        assertSame("Same string replaced", first, pool.intern(first));
+        assertNull("Null not accepted", pool.intern(null));
+
+        assertEquals("Wrong number of replaced strings", 1, pool.getReplaced());
+        assertTrue("No bytes saved", pool.getSavedBytes() >= 2 * TYPE.length());
+    }
+
+    /**
+     * Verifies that the modules and packages of different bugs are shared.
+     */
+    @Test
+    public void shouldShareStringsOfBugs() {
+        Bug first = createBug();
+        Bug second = createBug();
+        assertNotSame("Test setup wrong", first.getModuleName(), second.getModuleName());
+
+        new StringPool().intern(Arrays.asList(first, second));
+
+        assertSame("Module not shared", first.getModuleName(), second.getModuleName());
+        assertSame("Package not shared", first.getPackageName(), second.getPackageName());
+        assertEquals("Module changed", "module", second.getModuleName());
+    }
+
+    private Bug createBug() {
+        Bug bug = new Bug(Priority.HIGH, "Message", "CORRECTNESS", TYPE, 1, 1);
+        bug.setModuleName(copy("module"));
+        bug.setPackageName(copy("edu.hm"));
+        bug.setFileName("/path/to/Foo.java");
+        return bug;
+    }
+
+    private String copy(final String value) {
+        return new String(value.toCharArray());
+    }
+}